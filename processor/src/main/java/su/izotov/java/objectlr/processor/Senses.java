@@ -0,0 +1,403 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * The generated tokens and interactions of a class of senses. The tokens are found in the same way
+ * as the reflection of {@code Sense.tokens()} finds them, the 'concat' methods are selected in the
+ * same way as the double dispatch selects them: the most specific applicable method is called, the
+ * pair with several most specific methods is left to the reflection to report the ambiguity.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+final class Senses {
+
+  static final String SENSE = "su.izotov.java.objectlr.Sense";
+  private static final String TOKEN = "su.izotov.java.objectlr.token.Token";
+  private static final String PRECOMPILED = "su.izotov.java.objectlr.Precompiled";
+  private static final String TOKENS = "su.izotov.java.objectlr.tokens.Tokens";
+  private static final String TOKENS_OF = "su.izotov.java.objectlr.tokens.TokensOf";
+  private static final String SUFFIX = "_Senses";
+  private final Elements elements;
+  private final Types types;
+  private final TypeElement type;
+  private final PackageElement pkg;
+
+  /**
+   * @param env the environment of the processor
+   * @param type the class of senses
+   */
+  Senses(final ProcessingEnvironment env,
+         final TypeElement type) {
+    this.elements = env.getElementUtils();
+    this.types = env.getTypeUtils();
+    this.type = type;
+    this.pkg = this.elements.getPackageOf(type);
+  }
+
+  /**
+   * @return true, if the class is generated for the class of senses
+   */
+  boolean generated() {
+    return this.type.getKind() == ElementKind.CLASS && !this.type.getModifiers()
+                                                                  .contains(Modifier.ABSTRACT) &&
+           (this.type.getNestingKind() == NestingKind.TOP_LEVEL || this.type.getNestingKind() == NestingKind.MEMBER) &&
+           this.types.isSubtype(this.erasure(this.type),
+                                this.erasure(this.elements.getTypeElement(SENSE))) && this.accessible(this.type) &&
+           this.parameters() != null && this.tokens() != null;
+  }
+
+  /**
+   * @return the qualified name of the generated class
+   */
+  String name() {
+    final String binary = this.elements.getBinaryName(this.type)
+                                       .toString();
+    return binary.replace('$',
+                          '_') + SUFFIX;
+  }
+
+  /**
+   * @return the source code of the generated class
+   */
+  String toSource() {
+    final List<TypeElement> parameters = this.parameters();
+    final StringBuilder source = new StringBuilder(1024);
+    final String name = this.name();
+    final int dot = name.lastIndexOf('.');
+    if (dot != -1) {
+      source.append("package ")
+            .append(name, 0, dot)
+            .append(";\n\n");
+    }
+    source.append("/**\n * The tokens and the interactions of {@link ")
+          .append(this.type.getQualifiedName())
+          .append("}, generated by {@code ")
+          .append(SensesProcessor.class.getName())
+          .append("}.\n */\npublic final class ")
+          .append(name.substring(dot + 1))
+          .append("\n    implements ")
+          .append(PRECOMPILED)
+          .append(" {\n\n  @Override\n  public ")
+          .append(TOKENS)
+          .append(" tokens() {\n    return new ")
+          .append(TOKENS_OF)
+          .append('(');
+    String separator = "";
+    for (final TypeElement token : this.tokens()) {
+      source.append(separator)
+            .append("new ")
+            .append(token.getQualifiedName())
+            .append("()");
+      separator = ",\n        ";
+    }
+    source.append(");\n  }\n\n  @Override\n  public int method(final Class<?> guest) {\n");
+    for (int method = 0;
+         method < parameters.size();
+         method++) {
+      final TypeElement parameter = parameters.get(method);
+      source.append("    if (")
+            .append(parameter.getQualifiedName())
+            .append(".class.isAssignableFrom(guest)) {\n      return ");
+      String rivals = "";
+      for (final TypeElement rival : parameters) {
+        if (!this.related(parameter,
+                          rival) && !Senses.disjoint(parameter,
+                                                     rival)) {
+          source.append(rivals)
+                .append(rival.getQualifiedName())
+                .append(".class.isAssignableFrom(guest)");
+          rivals = " ||\n             ";
+        }
+      }
+      if (!rivals.isEmpty()) {
+        source.append(" ?\n             AMBIGUOUS :\n             ");
+      }
+      source.append(method)
+            .append(";\n    }\n");
+    }
+    source.append("    return DEFAULT;\n  }\n\n  @Override\n  public Class<?> parameter(final int method) {\n    switch (method) {\n");
+    for (int method = 0;
+         method < parameters.size();
+         method++) {
+      source.append("      case ")
+            .append(method)
+            .append(":\n        return ")
+            .append(parameters.get(method)
+                              .getQualifiedName())
+            .append(".class;\n");
+    }
+    source.append("      default:\n        throw new IllegalArgumentException(String.valueOf(method));\n    }\n  }\n\n");
+    if (!this.type.getTypeParameters()
+                  .isEmpty()) {
+      source.append("  @SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+    }
+    source.append("  @Override\n  public ")
+          .append(SENSE)
+          .append(" concat(final int method,\n      final ")
+          .append(SENSE)
+          .append(" master,\n      final ")
+          .append(SENSE)
+          .append(" guest) {\n    switch (method) {\n");
+    for (int method = 0;
+         method < parameters.size();
+         method++) {
+      source.append("      case ")
+            .append(method)
+            .append(":\n        return ((")
+            .append(this.type.getQualifiedName())
+            .append(") master).concat((")
+            .append(parameters.get(method)
+                              .getQualifiedName())
+            .append(") guest);\n");
+    }
+    source.append("      default:\n        throw new IllegalArgumentException(String.valueOf(method));\n    }\n  }\n}\n");
+    return source.toString();
+  }
+
+  /**
+   * the parameters of the 'concat' methods, which may be applied to a sense, the more specific
+   * parameter goes before the less specific one
+   * @return the parameters, or null if the methods can not be called from the generated class
+   */
+  private List<TypeElement> parameters() {
+    final TypeMirror sense = this.erasure(this.elements.getTypeElement(SENSE));
+    final List<TypeElement> found = new ArrayList<>(16);
+    for (final ExecutableElement method : this.concats()) {
+      if (method.getModifiers()
+                .contains(Modifier.STATIC)) {
+        continue;
+      }
+      final TypeMirror parameter = this.types.erasure(method.getParameters()
+                                                            .get(0)
+                                                            .asType());
+      if (parameter.getKind() != TypeKind.DECLARED) {
+        continue;
+      }
+      final TypeElement element = (TypeElement) this.types.asElement(parameter);
+      if (Senses.isFinal(element) && !this.types.isSubtype(parameter,
+                                                           sense)) {
+        continue;
+      }
+      if (!this.accessible(element) || !this.types.isSubtype(this.types.erasure(method.getReturnType()),
+                                                             sense)) {
+        return null;
+      }
+      for (final TypeMirror thrown : method.getThrownTypes()) {
+        if (!this.types.isSubtype(thrown,
+                                  this.erasure(this.elements.getTypeElement(RuntimeException.class.getName()))) &&
+            !this.types.isSubtype(thrown,
+                                  this.erasure(this.elements.getTypeElement(Error.class.getName())))) {
+          return null;
+        }
+      }
+      found.add(element);
+    }
+    final List<TypeElement> ret = new ArrayList<>(found.size());
+    while (!found.isEmpty()) {
+      TypeElement next = found.get(0);
+      for (final TypeElement other : found) {
+        if (this.types.isSubtype(this.erasure(other),
+                                 this.erasure(next))) {
+          next = other;
+        }
+      }
+      found.remove(next);
+      ret.add(next);
+    }
+    return ret;
+  }
+
+  /**
+   * the tokens, which have the default constructors, among the first parameters of the
+   * constructors of the classes of the parameters of the 'concat' methods (the second parameters,
+   * if the first ones are strings)
+   * @return the classes of the tokens, or null if they can not be created by the generated class
+   */
+  private Collection<TypeElement> tokens() {
+    final TypeMirror string = this.erasure(this.elements.getTypeElement(String.class.getName()));
+    final TypeMirror token = this.erasure(this.elements.getTypeElement(TOKEN));
+    final Set<TypeElement> ret = new LinkedHashSet<>(16);
+    final List<TypeMirror> candidates = new ArrayList<>(16);
+    final List<TypeMirror> second = new ArrayList<>(16);
+    for (final ExecutableElement method : this.concats()) {
+      final TypeMirror parameter = this.types.erasure(method.getParameters()
+                                                            .get(0)
+                                                            .asType());
+      if (parameter.getKind() != TypeKind.DECLARED) {
+        continue;
+      }
+      for (final ExecutableElement constructor : ElementFilter.constructorsIn(this.types.asElement(parameter)
+                                                                                        .getEnclosedElements())) {
+        final List<? extends Element> arguments = constructor.getParameters();
+        if (!constructor.getModifiers()
+                        .contains(Modifier.PUBLIC) || arguments.isEmpty()) {
+          continue;
+        }
+        final TypeMirror first = this.types.erasure(arguments.get(0)
+                                                             .asType());
+        if (!this.types.isSubtype(string,
+                                  first)) {
+          candidates.add(first);
+        }
+        else if (arguments.size() > 1) {
+          second.add(this.types.erasure(arguments.get(1)
+                                                 .asType()));
+        }
+      }
+    }
+    candidates.addAll(second);
+    for (final TypeMirror candidate : candidates) {
+      if (candidate.getKind() != TypeKind.DECLARED || !this.types.isSubtype(candidate,
+                                                                            token)) {
+        continue;
+      }
+      final TypeElement element = (TypeElement) this.types.asElement(candidate);
+      if (element.getKind() != ElementKind.CLASS || element.getNestingKind() == NestingKind.MEMBER && !element.getModifiers()
+                                                                                                               .contains(Modifier.STATIC) || !Senses.defaultConstructor(element)) {
+        continue;
+      }
+      if (element.getModifiers()
+                 .contains(Modifier.ABSTRACT) || !this.accessible(element)) {
+        return null;
+      }
+      ret.add(element);
+    }
+    return ret;
+  }
+
+  /**
+   * @return the public 'concat' methods with one parameter, declared or inherited
+   */
+  private List<ExecutableElement> concats() {
+    final List<ExecutableElement> ret = new ArrayList<>(16);
+    for (final ExecutableElement method : ElementFilter.methodsIn(this.elements.getAllMembers(this.type))) {
+      if (method.getSimpleName()
+                .contentEquals("concat") && method.getModifiers()
+                                                  .contains(Modifier.PUBLIC) && method.getParameters()
+                                                                                      .size() == 1) {
+        ret.add(method);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * @param first the first class
+   * @param second the second class
+   * @return true, if one of the classes extends the other one
+   */
+  private boolean related(final TypeElement first,
+                          final TypeElement second) {
+    return this.types.isSubtype(this.erasure(first),
+                                this.erasure(second)) || this.types.isSubtype(this.erasure(second),
+                                                                              this.erasure(first));
+  }
+
+  /**
+   * @param first the first class, which does not extend the second one
+   * @param second the second class, which does not extend the first one
+   * @return true, if no object is an instance of both classes
+   */
+  private static boolean disjoint(final TypeElement first,
+                                  final TypeElement second) {
+    return first.getKind()
+                .isClass() && second.getKind()
+                                    .isClass() || Senses.isFinal(first) || Senses.isFinal(second);
+  }
+
+  /**
+   * @param element the class
+   * @return true, if the class can not be extended
+   */
+  private static boolean isFinal(final TypeElement element) {
+    return element.getKind()
+                  .isClass() && element.getModifiers()
+                                       .contains(Modifier.FINAL);
+  }
+
+  /**
+   * @param element the class
+   * @return true, if the class can be named in the package of the generated class
+   */
+  private boolean accessible(final TypeElement element) {
+    Element current = element;
+    while (current instanceof TypeElement) {
+      if (current.getModifiers()
+                 .contains(Modifier.PRIVATE) ||
+          !current.getModifiers()
+                  .contains(Modifier.PUBLIC) && !this.elements.getPackageOf(current)
+                                                              .equals(this.pkg)) {
+        return false;
+      }
+      current = current.getEnclosingElement();
+    }
+    return true;
+  }
+
+  /**
+   * @param element the class
+   * @return the class without the type parameters
+   */
+  private TypeMirror erasure(final Element element) {
+    return this.types.erasure(element.asType());
+  }
+
+  /**
+   * @param element the class
+   * @return true, if the class has the public constructor without parameters
+   */
+  private static boolean defaultConstructor(final TypeElement element) {
+    boolean ret = false;
+    for (final ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+      if (constructor.getModifiers()
+                     .contains(Modifier.PUBLIC) && constructor.getParameters()
+                                                              .isEmpty()) {
+        ret = true;
+      }
+    }
+    return ret;
+  }
+}
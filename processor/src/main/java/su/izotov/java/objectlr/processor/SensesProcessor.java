@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * The processor generates the tokens and the switch of the 'concat' methods for every class of
+ * senses compiled with it, so the recognition needs no reflection for these classes. The class,
+ * for which the result of the reflection can not be reproduced in the source code, is skipped.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+@SupportedAnnotationTypes("*")
+public final class SensesProcessor
+    extends AbstractProcessor {
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations,
+                         final RoundEnvironment round) {
+    if (this.processingEnv.getElementUtils()
+                          .getTypeElement(Senses.SENSE) == null) {
+      return false;
+    }
+    final Deque<TypeElement> types = new ArrayDeque<>(ElementFilter.typesIn(round.getRootElements()));
+    while (!types.isEmpty()) {
+      final TypeElement type = types.pop();
+      types.addAll(ElementFilter.typesIn(type.getEnclosedElements()));
+      final Senses senses = new Senses(this.processingEnv,
+                                       type);
+      if (senses.generated()) {
+        this.write(senses,
+                   type);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param senses the generated class
+   * @param type the class of senses
+   */
+  private void write(final Senses senses,
+                     final Element type) {
+    try (Writer writer = this.processingEnv.getFiler()
+                                           .createSourceFile(senses.name(),
+                                                             type)
+                                           .openWriter()) {
+      writer.write(senses.toSource());
+    } catch (final IOException e) {
+      this.processingEnv.getMessager()
+                        .printMessage(Diagnostic.Kind.ERROR,
+                                      e.toString(),
+                                      type);
+    }
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.processor;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import su.izotov.java.objectlr.Precompiled;
+import su.izotov.java.objectlr.Recognition;
+import su.izotov.java.objectlr.Sense;
+import su.izotov.java.objectlr.Trace;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.token.Token;
+
+/**
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class SensesProcessorTest {
+
+  private static final String LANGUAGE = "package sample;\n" +
+                                         "import su.izotov.java.objectlr.Sense;\n" +
+                                         "import su.izotov.java.objectlr.text.Text;\n" +
+                                         "import su.izotov.java.objectlr.token.Absence;\n" +
+                                         "import su.izotov.java.objectlr.token.Token;\n" +
+                                         "public class Master implements Lang {\n" +
+                                         "  public Sense concat(Pair pair) { return pair; }\n" +
+                                         "  public Sense concat(Named named) { return named; }\n" +
+                                         "  public String toSource() { return \"\"; }\n" +
+                                         "  public interface Left extends Sense {}\n" +
+                                         "  public interface Right extends Sense {}\n" +
+                                         "  public static final class A implements Token, Lang {\n" +
+                                         "    public String toSource() { return \"a\"; }\n" +
+                                         "    public Sense concat(B b) { return new Pair(this, b); }\n" +
+                                         "    public Sense concat(Left left) { return left; }\n" +
+                                         "    public Sense concat(Right right) { return right; }\n" +
+                                         "  }\n" +
+                                         "  public static final class B implements Token, Lang, Left, Right {\n" +
+                                         "    public String toSource() { return \"b\"; }\n" +
+                                         "  }\n" +
+                                         "  public static final class Both implements Left, Right {\n" +
+                                         "    public String toSource() { return \"\"; }\n" +
+                                         "  }\n" +
+                                         "  public static final class Pair implements Sense {\n" +
+                                         "    public Pair(A a, B b) {}\n" +
+                                         "    public String toSource() { return \"ab\"; }\n" +
+                                         "  }\n" +
+                                         "  public static final class Named implements Sense {\n" +
+                                         "    public Named(String name, B b) {}\n" +
+                                         "    public String toSource() { return \"b\"; }\n" +
+                                         "  }\n" +
+                                         "}\n" +
+                                         "interface Lang extends Sense {\n" +
+                                         "  default Sense textToken(String text) { return text.isEmpty() ? new Absence() : new Word(text); }\n" +
+                                         "}\n" +
+                                         "final class Word implements Text, Lang {\n" +
+                                         "  private final String text;\n" +
+                                         "  Word(String text) { this.text = text; }\n" +
+                                         "  public String toSource() { return this.text; }\n" +
+                                         "}\n";
+  private static final String TEXT = "xabyabbaz";
+
+  @Test
+  public void testSameAsReflection() throws
+                                     Exception {
+    final Path generated = SensesProcessorTest.compiled(true);
+    final Path reflected = SensesProcessorTest.compiled(false);
+    try (URLClassLoader first = SensesProcessorTest.loader(generated);
+         URLClassLoader second = SensesProcessorTest.loader(reflected)) {
+      assertTrue(Files.exists(generated.resolve("sample/Master_Senses.class")));
+      assertFalse(Files.exists(reflected.resolve("sample/Master_Senses.class")));
+      final Set<String> switched = new HashSet<>(4);
+      final Set<String> resolved = new HashSet<>(4);
+      assertEquals(SensesProcessorTest.recognized(second,
+                                                  resolved),
+                   SensesProcessorTest.recognized(first,
+                                                  switched));
+      assertTrue(switched.contains("Switched"));
+      assertFalse(resolved.contains("Switched"));
+      final Sense master = (Sense) first.loadClass("sample.Master")
+                                        .getConstructor()
+                                        .newInstance();
+      assertTrue(master.tokens()
+                       .contains((Token) first.loadClass("sample.Master$A")
+                                              .getConstructor()
+                                              .newInstance()));
+      assertTrue(master.tokens()
+                       .contains((Token) first.loadClass("sample.Master$B")
+                                              .getConstructor()
+                                              .newInstance()));
+    } finally {
+      SensesProcessorTest.delete(generated);
+      SensesProcessorTest.delete(reflected);
+    }
+  }
+
+  @Test
+  public void testAmbiguityLeftToReflection() throws
+                                              Exception {
+    final Path generated = SensesProcessorTest.compiled(true);
+    try (URLClassLoader loader = SensesProcessorTest.loader(generated)) {
+      final Precompiled senses = (Precompiled) loader.loadClass("sample.Master_A_Senses")
+                                                     .getConstructor()
+                                                     .newInstance();
+      assertEquals(Precompiled.AMBIGUOUS,
+                   senses.method(loader.loadClass("sample.Master$Both")));
+      assertEquals(loader.loadClass("sample.Master$B"),
+                   senses.parameter(senses.method(loader.loadClass("sample.Master$B"))));
+      assertEquals(Precompiled.DEFAULT,
+                   senses.method(loader.loadClass("sample.Master$A")));
+      assertEquals(loader.loadClass("sample.Master$Left"),
+                   senses.parameter(senses.method(loader.loadClass("sample.Master$Left"))));
+    } finally {
+      SensesProcessorTest.delete(generated);
+    }
+  }
+
+  private static String recognized(final ClassLoader loader,
+                                   final Set<String> functions) throws
+                                                                ReflectiveOperationException {
+    final Sense master = (Sense) loader.loadClass("sample.Master")
+                                       .getConstructor()
+                                       .newInstance();
+    return new Recognition(new Trace() {
+      @Override
+      public void interaction(final Sense master,
+                              final Sense guest,
+                              final Object function) {
+        functions.add(function.getClass()
+                              .getSimpleName());
+      }
+
+      @Override
+      public void result(final Sense result) {
+      }
+    }).run(() -> master.concatDD(new Source(TEXT)))
+      .toVisual()
+      .toSource();
+  }
+
+  private static Path compiled(final boolean processed) throws
+                                                        IOException {
+    final Path directory = Files.createTempDirectory("senses");
+    final Path source = directory.resolve("sample/Master.java");
+    Files.createDirectories(source.getParent());
+    Files.write(source,
+                LANGUAGE.getBytes(StandardCharsets.UTF_8));
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager files = compiler.getStandardFileManager(null,
+                                                                         null,
+                                                                         StandardCharsets.UTF_8)) {
+      final JavaCompiler.CompilationTask task = compiler.getTask(null,
+                                                                 files,
+                                                                 null,
+                                                                 Arrays.asList("-classpath",
+                                                                               System.getProperty("java.class.path"),
+                                                                               "-d",
+                                                                               directory.toString(),
+                                                                               "-s",
+                                                                               directory.toString()),
+                                                                 null,
+                                                                 files.getJavaFileObjects(source.toFile()));
+      task.setProcessors(processed ?
+                         Collections.singletonList(new SensesProcessor()) :
+                         Collections.emptyList());
+      assertTrue(task.call());
+    }
+    return directory;
+  }
+
+  private static URLClassLoader loader(final Path directory) throws
+                                                             IOException {
+    return new URLClassLoader(new URL[]{directory.toUri()
+                                                 .toURL()},
+                              SensesProcessorTest.class.getClassLoader());
+  }
+
+  private static void delete(final Path directory) throws
+                                                   IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder())
+           .forEach(path -> path.toFile()
+                                .delete());
+    }
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.text.Text;
+import su.izotov.java.objectlr.token.Failed;
+import su.izotov.java.objectlr.token.Token;
+import su.izotov.java.objectlr.tokens.Tokens;
+import su.izotov.java.objectlr.tokens.TokensOf;
+
+/**
+ * the recognition of the whole sentence. The dense grammar interacts with a token every few
+ * characters, the failing one re-recognizes the half of its tokens as text.
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SentenceBenchmark {
+
+  @Benchmark
+  public Sense recognize(final Input input) throws
+                                            RecognitionException {
+    return sentence(input.grammar,
+                    input.text).toObject(new Recognition(new Silent()));
+  }
+
+  /**
+   * the trace is rendered as a whole, so it is measured on the short texts only
+   */
+  @Benchmark
+  public Sense trace(final Traced input) throws
+                                          RecognitionException {
+    return sentence(input.grammar,
+                    input.text).toObject(new Recognition(new Logged(input.logger)));
+  }
+
+  private static String text(final String grammar,
+                             final int size) {
+    final String sample;
+    if ("dense".equals(grammar)) {
+      sample = "text first second text third ";
+    } else {
+      sample = "key;value keyword; key text;";
+    }
+    final StringBuilder ret = new StringBuilder(size + sample.length());
+    while (ret.length() < size) {
+      ret.append(sample);
+    }
+    return ret.substring(0,
+                         size);
+  }
+
+  private static Sentence<?, Sense> sentence(final String grammar,
+                                             final String text) {
+    if ("dense".equals(grammar)) {
+      return new Sentence<MKLangImpl, Sense>(text,
+                                             new MKLangImpl()) {
+      };
+    } else {
+      return new Sentence<Statements, Sense>(text,
+                                             new Statements()) {
+      };
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Input {
+
+    @Param({"100",
+            "10000",
+            "1000000",
+            "10000000"})
+    int size;
+    @Param({"dense",
+            "failing"})
+    String grammar;
+    String text;
+
+    @Setup
+    public void setUp() {
+      this.text = text(this.grammar,
+                       this.size);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Traced {
+
+    @Param({"100",
+            "1000"})
+    int size;
+    @Param({"dense",
+            "failing"})
+    String grammar;
+    String text;
+    Logger logger;
+
+    @Setup
+    public void setUp() {
+      this.text = text(this.grammar,
+                       this.size);
+      this.logger = Logger.getAnonymousLogger();
+      this.logger.setUseParentHandlers(false);
+      this.logger.setLevel(Level.INFO);
+    }
+  }
+
+  public interface Statement
+      extends Sense {
+
+    Tokens TOKENS = new TokensOf(new Key(),
+                                 new Separator());
+
+    @Override
+    default Tokens tokens() {
+      return TOKENS;
+    }
+
+    @Override
+    default Sense textToken(final String text) {
+      return new Word(text);
+    }
+  }
+
+  public static final class Statements
+      implements Statement {
+
+    @Override
+    public String toSource() {
+      return "";
+    }
+  }
+
+  public static final class Key
+      implements Token,
+                 Statement {
+
+    public Sense concat(final Separator separator) {
+      return new Assignment();
+    }
+
+    /**
+     * the key followed by a text is a part of the text
+     * @param word the following text
+     * @return failed
+     */
+    public Sense concat(final Word word) {
+      return new Failed(this,
+                        new Source(word.toSource()));
+    }
+
+    @Override
+    public String toSource() {
+      return "key";
+    }
+  }
+
+  public static final class Separator
+      implements Token,
+                 Statement {
+
+    @Override
+    public String toSource() {
+      return ";";
+    }
+  }
+
+  public static final class Assignment
+      implements Statement {
+
+    @Override
+    public String toSource() {
+      return "key;";
+    }
+  }
+
+  public static final class Word
+      implements Text,
+                 Statement {
+
+    private final String text;
+
+    Word(final String text) {
+      this.text = text;
+    }
+
+    @Override
+    public String toSource() {
+      return this.text;
+    }
+  }
+}
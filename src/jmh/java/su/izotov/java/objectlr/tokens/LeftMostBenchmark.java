@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.tokens;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import su.izotov.java.objectlr.token.Token;
+
+/**
+ * the search of the leftmost token in the text by the list of tokens of the given size, and the
+ * scan of all tokens of the text without recognition
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LeftMostBenchmark {
+
+  @Param({"10",
+          "100",
+          "1000"})
+  private int size;
+  private Tokens tokens;
+  private Lexer lexer;
+  private String text;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(this.size);
+    final Tokens[] literals = new Tokens[this.size];
+    for (int index = 0;
+         index < this.size;
+         index++) {
+      literals[index] = new Literal(word(random) + index);
+    }
+    this.tokens = new TokensOf(literals);
+    this.lexer = new Lexer(this.tokens);
+    final StringBuilder text = new StringBuilder();
+    while (text.length() < 4096) {
+      text.append(word(random))
+          .append(' ');
+    }
+    this.text = text.append(literals[random.nextInt(this.size)].toString())
+                    .toString();
+  }
+
+  @Benchmark
+  public Token leftMostIn() {
+    return this.tokens.leftMostIn(this.text);
+  }
+
+  @Benchmark
+  public int[] lex() {
+    return this.lexer.lex(this.text);
+  }
+
+  private static String word(final Random random) {
+    final char[] ret = new char[3 + random.nextInt(6)];
+    for (int index = 0;
+         index < ret.length;
+         index++) {
+      ret[index] = (char) ('a' + random.nextInt(26));
+    }
+    return new String(ret);
+  }
+
+  private static final class Literal
+      implements Token {
+
+    private final String text;
+
+    Literal(final String text) {
+      this.text = text;
+    }
+
+    @Override
+    public String toSource() {
+      return this.text;
+    }
+
+    @Override
+    public String toString() {
+      return this.text;
+    }
+  }
+}
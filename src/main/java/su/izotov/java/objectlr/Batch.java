@@ -0,0 +1,230 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The recognition of many sentences by the executor. The texts are taken in chunks, each chunk is
+ * recognized by one task within one context, and the results are returned in the order of the
+ * texts. No more than the given number of chunks is recognized at once, the next texts are taken
+ * as the results are consumed. The failed recognition of a sentence is returned as the value, and
+ * does not stop the batch: the result, which is not of the expected type, and the runtime
+ * exception of the recognition are returned as the {@link RecognitionException}. The tokens and the interactions of the senses are discovered once and
+ * shared by all the sentences, the contexts may share the compiled {@link Grammar}.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @param <R> the type of recognizable object
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class Batch<R extends Sense> {
+
+  private final Function<? super CharSequence, ? extends Sentence<?, R>> sentences;
+  private final Class<R> type;
+  private final Supplier<Recognition> recognitions;
+  private final Executor executor;
+  private final int parallelism;
+  private final int chunk;
+
+  /**
+   * the batch, recognizing as many chunks of 64 sentences at once as there are processors
+   * @param sentences the sentence of the text
+   * @param type the type of recognizable object
+   * @param executor the executor of the recognition
+   */
+  public Batch(final Function<? super CharSequence, ? extends Sentence<?, R>> sentences,
+               final Class<R> type,
+               final Executor executor) {
+    this(sentences,
+         type,
+         Recognition::new,
+         executor,
+         Runtime.getRuntime()
+                .availableProcessors(),
+         64);
+  }
+
+  /**
+   * @param sentences the sentence of the text
+   * @param type the type of recognizable object
+   * @param recognitions the context of the recognition of each chunk
+   * @param executor the executor of the recognition
+   * @param parallelism the maximal number of chunks recognized at once
+   * @param chunk the number of sentences recognized by one task
+   */
+  public Batch(final Function<? super CharSequence, ? extends Sentence<?, R>> sentences,
+               final Class<R> type,
+               final Supplier<Recognition> recognitions,
+               final Executor executor,
+               final int parallelism,
+               final int chunk) {
+    if (parallelism < 1 || chunk < 1) {
+      throw new IllegalArgumentException("The parallelism and the chunk must be positive");
+    }
+    this.sentences = sentences;
+    this.type = type;
+    this.recognitions = recognitions;
+    this.executor = executor;
+    this.parallelism = parallelism;
+    this.chunk = chunk;
+  }
+
+  /**
+   * recognize the texts, the texts are taken and recognized as the results are iterated
+   * @param texts the texts
+   * @return the results in the order of the texts
+   */
+  public Iterator<Recognized<R>> recognized(final Iterator<? extends CharSequence> texts) {
+    return new Ordered(texts);
+  }
+
+  /**
+   * recognize the texts, the texts are taken and recognized as the results are consumed
+   * @param texts the texts
+   * @return the results in the order of the texts
+   */
+  public Stream<Recognized<R>> recognized(final Stream<? extends CharSequence> texts) {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this.recognized(texts.iterator()),
+                                                                    Spliterator.ORDERED
+                                                                    | Spliterator.NONNULL),
+                                false)
+                        .onClose(texts::close);
+  }
+
+  /**
+   * recognize all the texts
+   * @param texts the texts
+   * @return the results in the order of the texts
+   */
+  public List<Recognized<R>> recognized(final Iterable<? extends CharSequence> texts) {
+    final List<Recognized<R>> ret = new ArrayList<>();
+    this.recognized(texts.iterator())
+        .forEachRemaining(ret::add);
+    return ret;
+  }
+
+  /**
+   * recognize the chunk of texts within one context
+   * @param texts the texts
+   * @return the results
+   */
+  private List<Recognized<R>> chunk(final List<CharSequence> texts) {
+    final Recognition recognition = this.recognitions.get();
+    final List<Recognized<R>> ret = new ArrayList<>(texts.size());
+    for (final CharSequence text : texts) {
+      Recognized<R> recognized;
+      try {
+        final Sense sense = this.sentences.apply(text)
+                                          .toObject(recognition);
+        if (!this.type.isInstance(sense)) {
+          throw new RecognitionException(sense);
+        }
+        recognized = new Recognized<>(this.type.cast(sense));
+      } catch (final RecognitionException e) {
+        recognized = new Recognized<>(e);
+      } catch (final RuntimeException e) {
+        recognized = new Recognized<>(new RecognitionException(e));
+      }
+      ret.add(recognized);
+    }
+    return ret;
+  }
+
+  /**
+   * the results in the order of the texts, the number of the chunks in progress is bounded
+   */
+  private final class Ordered
+      implements Iterator<Recognized<R>> {
+
+    private final Iterator<? extends CharSequence> texts;
+    private final Deque<CompletableFuture<List<Recognized<R>>>> pending;
+    private Iterator<Recognized<R>> ready;
+
+    Ordered(final Iterator<? extends CharSequence> texts) {
+      this.texts = texts;
+      this.pending = new ArrayDeque<>(Batch.this.parallelism);
+      this.ready = Collections.emptyIterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!this.ready.hasNext() && (this.texts.hasNext() || !this.pending.isEmpty())) {
+        this.submit();
+        final CompletableFuture<List<Recognized<R>>> first = this.pending.removeFirst();
+        this.submit();
+        try {
+          this.ready = first.join()
+                            .iterator();
+        } catch (final CompletionException e) {
+          if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+          }
+          if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+          }
+          throw e;
+        }
+      }
+      return this.ready.hasNext();
+    }
+
+    @Override
+    public Recognized<R> next() {
+      if (!this.hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return this.ready.next();
+    }
+
+    /**
+     * start the recognition of the next chunks, until the bound is reached
+     */
+    private void submit() {
+      while (this.pending.size() < Batch.this.parallelism && this.texts.hasNext()) {
+        final List<CharSequence> chunk = new ArrayList<>(Batch.this.chunk);
+        while (chunk.size() < Batch.this.chunk && this.texts.hasNext()) {
+          chunk.add(this.texts.next());
+        }
+        this.pending.addLast(CompletableFuture.supplyAsync(() -> Batch.this.chunk(chunk),
+                                                           Batch.this.executor));
+      }
+    }
+  }
+}
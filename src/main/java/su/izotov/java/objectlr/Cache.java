@@ -0,0 +1,307 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The cache of the recognized objects of the repeated sentences. The objects are kept by the
+ * grammar of the recognition, the master and the text of the sentence, and only if the master and
+ * all the senses of the object are immutable: their classes are final and have only final fields
+ * of the primitive types, the strings or the classes immutable in the same way. The masters
+ * without fields are kept by their class, the others by their equality, so the masters of the
+ * same class with different configuration do not share the objects. The reading does not lock,
+ * the oldest entries, which were not read since the last pass of the eviction, are evicted when
+ * the number of the entries or of their characters exceeds the bound. The context with a trace or
+ * a listener is recognized without the cache, because they expect every interaction.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class Cache {
+
+  /**
+   * the instances of the class are immutable
+   */
+  private static final ClassValue<Boolean> IMMUTABLE = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+      return Cache.immutable(type,
+                             new HashSet<>(4));
+    }
+  };
+  /**
+   * the class and its superclasses have no instance fields
+   */
+  private static final ClassValue<Boolean> STATELESS = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+      boolean ret = true;
+      for (Class<?> declaring = type;
+           ret && declaring != null;
+           declaring = declaring.getSuperclass()) {
+        for (final Field field : declaring.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())) {
+            ret = false;
+          }
+        }
+      }
+      return ret;
+    }
+  };
+  private final Map<Key, Entry> entries;
+  private final Queue<Key> order;
+  private final int capacity;
+  private final long characters;
+  private final AtomicLong weight;
+  private final LongAdder hits;
+  private final LongAdder misses;
+
+  /**
+   * @param capacity the maximal number of the entries
+   * @param characters the maximal number of the characters of the texts and the objects
+   */
+  public Cache(final int capacity,
+               final long characters) {
+    this.entries = new ConcurrentHashMap<>(16);
+    this.order = new ConcurrentLinkedQueue<>();
+    this.capacity = capacity;
+    this.characters = characters;
+    this.weight = new AtomicLong();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+  /**
+   * recognize the text and convert it into Object, or take the object recognized before
+   * @param sentence the sentence
+   * @param <R> the type of recognizable object
+   * @return an object
+   * @throws RecognitionException if recognition process fail
+   */
+  public <R extends Sense> R toObject(final Sentence<?, R> sentence) throws
+                                                                    RecognitionException {
+    return this.toObject(sentence,
+                         new Recognition());
+  }
+
+  /**
+   * recognize the text within the given context and convert it into Object, or take the object
+   * recognized before within the context with the same grammar
+   * @param sentence the sentence
+   * @param recognition the context of the recognition run
+   * @param <R> the type of recognizable object
+   * @return an object
+   * @throws RecognitionException if recognition process fail
+   */
+  @SuppressWarnings("unchecked")
+  public <R extends Sense> R toObject(final Sentence<?, R> sentence,
+                                      final Recognition recognition) throws
+                                                                     RecognitionException {
+    if (!(recognition.trace() instanceof Silent) || !(recognition.listener() instanceof Deaf)
+        || !IMMUTABLE.get(sentence.master()
+                                  .getClass())) {
+      this.misses.increment();
+      return sentence.toObject(recognition);
+    }
+    final Key key = new Key(recognition.grammar(),
+                            STATELESS.get(sentence.master()
+                                                  .getClass()) ?
+                            sentence.master()
+                                    .getClass() :
+                            sentence.master(),
+                            sentence.text()
+                                    .toString());
+    final Entry entry = this.entries.get(key);
+    if (entry != null) {
+      entry.read = true;
+      this.hits.increment();
+      return (R) entry.object;
+    }
+    this.misses.increment();
+    final R ret = sentence.toObject(recognition);
+    if (Cache.immutable(ret)) {
+      final Entry created = new Entry(ret,
+                                      key.text.length() + ret.toSource()
+                                                             .length());
+      if (this.entries.putIfAbsent(key,
+                                   created) == null) {
+        this.order.add(key);
+        this.weight.addAndGet(created.weight);
+        this.evict();
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * @return the number of the objects taken from the cache
+   */
+  public long hits() {
+    return this.hits.sum();
+  }
+
+  /**
+   * @return the number of the recognized objects
+   */
+  public long misses() {
+    return this.misses.sum();
+  }
+
+  /**
+   * @return the number of the entries
+   */
+  public int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * evict the entries until the cache is within the bounds, the entry read since the last pass
+   * is moved to the end of the queue instead
+   */
+  private void evict() {
+    while (this.entries.size() > this.capacity || this.weight.get() > this.characters) {
+      final Key key = this.order.poll();
+      if (key == null) {
+        break;
+      }
+      final Entry entry = this.entries.get(key);
+      if (entry != null) {
+        if (entry.read) {
+          entry.read = false;
+          this.order.add(key);
+        }
+        else if (this.entries.remove(key,
+                                     entry)) {
+          this.weight.addAndGet(-entry.weight);
+        }
+      }
+    }
+  }
+
+  /**
+   * The class is final, not an array, and its instance fields are final and are of the primitive
+   * types, the strings or the classes, which are immutable in the same way. The classes, which are
+   * being checked, are assumed immutable, so the classes referring to themselves are checked once.
+   * @param type the class
+   * @param checked the classes, which are being checked or are checked
+   * @return true, if the instances of the class are immutable
+   */
+  private static boolean immutable(final Class<?> type,
+                                   final Set<Class<?>> checked) {
+    boolean ret = type.isPrimitive() || type == String.class || checked.contains(type);
+    if (!ret && Modifier.isFinal(type.getModifiers()) && !type.isArray()) {
+      checked.add(type);
+      ret = true;
+      for (Class<?> declaring = type;
+           ret && declaring != null;
+           declaring = declaring.getSuperclass()) {
+        for (final Field field : declaring.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers()) && (!Modifier.isFinal(field.getModifiers())
+                                                           || !Cache.immutable(field.getType(),
+                                                                               checked))) {
+            ret = false;
+          }
+        }
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * @param sense the recognized object
+   * @return true, if the object and all its senses are immutable
+   */
+  private static boolean immutable(final Sense sense) {
+    Sense current = sense;
+    while (current instanceof Chain) {
+      if (!IMMUTABLE.get(((Chain) current).current()
+                                          .getClass())) {
+        return false;
+      }
+      current = ((Chain) current).parent();
+    }
+    if (current instanceof One) {
+      current = ((One) current).sense();
+    }
+    return IMMUTABLE.get(current.getClass());
+  }
+
+  /**
+   * the grammar, the master or its class and the text
+   */
+  private static final class Key {
+
+    private final Grammar grammar;
+    private final Object master;
+    private final String text;
+    private final int hash;
+
+    Key(final Grammar grammar,
+        final Object master,
+        final String text) {
+      this.grammar = grammar;
+      this.master = master;
+      this.text = text;
+      this.hash = (System.identityHashCode(grammar) * 31 + master.hashCode()) * 31 + text.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      return other instanceof Key && ((Key) other).grammar == this.grammar
+             && ((Key) other).master.equals(this.master) && ((Key) other).text.equals(this.text);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+  }
+
+  /**
+   * the recognized object, its weight and the mark of the reading
+   */
+  private static final class Entry {
+
+    private final Sense object;
+    private final long weight;
+    private volatile boolean read;
+
+    Entry(final Sense object,
+          final long weight) {
+      this.object = object;
+      this.weight = weight;
+    }
+  }
+}
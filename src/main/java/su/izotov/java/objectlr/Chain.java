@@ -23,10 +23,15 @@
  */
 package su.izotov.java.objectlr;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import su.izotov.java.objectlr.print.Cell;
 import su.izotov.java.objectlr.text.Source;
 import su.izotov.java.objectlr.text.Text;
+import su.izotov.java.objectlr.token.Absence;
 import su.izotov.java.objectlr.token.Failed;
+import su.izotov.java.objectlr.token.Token;
 import su.izotov.java.objectlr.tokens.Tokens;
 
 /**
@@ -48,26 +53,93 @@ public final class Chain
          sense2);
   }
 
+  /**
+   * The chain of the senses before the {@link Finished} sense is never unwound again, so it is
+   * replaced by the empty buffer and is not kept by the chain.
+   * @param parent the chain of the preceding senses
+   * @param current the last sense
+   */
   Chain(final Buffer parent,
         final Sense current) {
     if (current instanceof Buffer) {
       throw new RuntimeException("Can not use buffer inside the buffer!");
     }
-    this.parent = parent;
+    this.parent = current instanceof Finished ?
+                  new Released() :
+                  parent;
     this.current = current;
   }
 
+  /**
+   * The sense interacts with the last sense of the chain. If they interact, the result interacts
+   * with the previous part of the chain. The chain is unwound in the loop, not by nested calls,
+   * while the result is passed to this method of the parent chain; the trace of interactions stays
+   * the same as if the calls were nested.
+   * @param sense the following sense
+   * @return recognition result
+   */
   @Override
   public final Sense concat(final Sense sense) throws
                                                Exception {
-    final Sense res = this.current.concatDD(sense);
-    if (res instanceof Buffer) {
-      return new Chain(this,
-                       sense);
+    final Recognition recognition = Recognition.current();
+    final Trace trace = recognition.trace();
+    final Listener listener = recognition.listener();
+    final Metrics metrics = recognition.metrics();
+    final long start = metrics.time(Metrics.Stage.REDUCTION);
+    Chain chain = this;
+    Sense guest = sense;
+    int nested = 0;
+    Sense ret = null;
+    while (ret == null) {
+      final Sense res = chain.current.concatDD(guest);
+      if (res instanceof Buffer) {
+        ret = new Chain(chain,
+                        guest);
+      }
+      else {
+        Recognizer.reduced(listener,
+                           chain.current,
+                           guest,
+                           res);
+        if (chain.parent instanceof Chain && Chain.unwinds(res)) {
+          trace.interaction(chain.parent,
+                            res,
+                            recognition.grammar()
+                                       .function(chain.parent,
+                                                 res));
+          nested++;
+          chain = (Chain) chain.parent;
+          guest = res;
+        }
+        else {
+          ret = chain.parent.concatDD(res);
+        }
+      }
     }
-    else {
-      return this.parent.concatDD(res);
+    for (int level = 0;
+         level < nested;
+         level++) {
+      trace.result(ret);
     }
+    if (!(ret instanceof Chain) || ((Chain) ret).parent != this) {
+      metrics.reduction(this.current.getClass(),
+                        sense.getClass(),
+                        nested + 1,
+                        recognition.failures()
+                                   .position(),
+                        start);
+    }
+    return ret;
+  }
+
+  /**
+   * the interaction of a chain with the sense is dispatched to {@link #concat(Sense)}, not to the
+   * overloads for the special senses
+   * @param sense the sense, which is not a buffer
+   * @return true, if the chain interacts with the sense by {@link #concat(Sense)}
+   */
+  private static boolean unwinds(final Sense sense) {
+    return !(sense instanceof Failed || sense instanceof Absence || sense instanceof Source);
   }
 
   /**
@@ -76,15 +148,64 @@ public final class Chain
    * @return recognition result
    */
   public Sense concat(final Failed failed) {
+    final Recognition recognition = Recognition.current();
+    final Metrics metrics = recognition.metrics();
+    final long start = metrics.time(Metrics.Stage.FAILURE);
+    recognition.failures()
+               .failure(this,
+                        failed.token());
+    final Chain excluding = this.excluding(failed.token());
+    metrics.exclusion(((Excluded) excluding.current).depth());
+    final Sense ret = excluding.concatDD(recognition.failures()
+                                                    .source(failed));
+    metrics.failure(this.current.getClass(),
+                    failed.token()
+                          .getClass(),
+                    recognition.failures()
+                               .position(),
+                    start);
+    return ret;
+  }
+
+  /**
+   * @param token the token
+   * @return the chain, which last sense recognizes the text without the token
+   */
+  Chain excluding(final Token token) {
     return new Chain(this.parent,
-                     new Excluded(failed.token(),
-                                  this.current)).concatDD(new Source(failed.toSource()));
+                     new Excluded(token,
+                                  this.current));
+  }
+
+  /**
+   * @return the last sense of the chain
+   */
+  Sense current() {
+    return this.current;
   }
 
+  /**
+   * @return the chain without the last sense
+   */
+  Buffer parent() {
+    return this.parent;
+  }
+
+  /**
+   * the senses of the chain are placed one under another
+   * @return formatted representation
+   */
   @Override
   public final Cell toVisual() {
-    return this.parent.toVisual()
-                      .addBottom(this.current.toVisual());
+    final Iterator<Sense> senses = this.senses()
+                                       .iterator();
+    Cell ret = senses.next()
+                     .toVisual();
+    while (senses.hasNext()) {
+      ret = ret.addBottom(senses.next()
+                                .toVisual());
+    }
+    return ret;
   }
 
   @Override
@@ -99,6 +220,31 @@ public final class Chain
 
   @Override
   public final String toSource() {
-    return this.parent.toSource() + this.current.toSource();
+    final StringBuilder ret = new StringBuilder();
+    this.appendSource(ret);
+    return ret.toString();
+  }
+
+  @Override
+  public final void appendSource(final StringBuilder builder) {
+    for (final Sense sense : this.senses()) {
+      sense.appendSource(builder);
+    }
+  }
+
+  /**
+   * @return the first buffer of the chain and the senses following it, in the order of the text
+   */
+  private Deque<Sense> senses() {
+    final Deque<Sense> ret = new ArrayDeque<>();
+    Buffer buffer = this;
+    while (buffer instanceof Chain) {
+      ret.addFirst(((Chain) buffer).current);
+      buffer = ((Chain) buffer).parent;
+    }
+    if (!(buffer instanceof Released)) {
+      ret.addFirst(buffer);
+    }
+    return ret;
   }
 }
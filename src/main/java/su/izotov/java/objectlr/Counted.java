@@ -0,0 +1,337 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics, which count the events and sum their durations. The counters are shared by the
+ * recognitions on all threads and are updated without locks.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class Counted
+    implements Metrics {
+
+  private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Counter>> interactions;
+  private final LongAdder resolutions;
+  private final LongAdder reductions;
+  private final Counter searches;
+  private final LongAdder characters;
+  private final Counter failures;
+  private final LongAdder exclusions;
+  private final LongAccumulator deepest;
+  private final LongAdder discoveries;
+  private final Counter recognitions;
+
+  public Counted() {
+    this.interactions = new ConcurrentHashMap<>(16);
+    this.resolutions = new LongAdder();
+    this.reductions = new LongAdder();
+    this.searches = new Counter();
+    this.characters = new LongAdder();
+    this.failures = new Counter();
+    this.exclusions = new LongAdder();
+    this.deepest = new LongAccumulator(Long::max,
+                                       0);
+    this.discoveries = new LongAdder();
+    this.recognitions = new Counter();
+  }
+
+  @Override
+  public long time(final Stage stage) {
+    return System.nanoTime();
+  }
+
+  @Override
+  public void interaction(final Class<?> master,
+                          final Class<?> guest,
+                          final long start) {
+    ConcurrentMap<Class<?>, Counter> guests = this.interactions.get(master);
+    if (guests == null) {
+      guests = new ConcurrentHashMap<>(16);
+      final ConcurrentMap<Class<?>, Counter> existing = this.interactions.putIfAbsent(master,
+                                                                                      guests);
+      if (existing != null) {
+        guests = existing;
+      }
+    }
+    Counter counter = guests.get(guest);
+    if (counter == null) {
+      counter = new Counter();
+      final Counter existing = guests.putIfAbsent(guest,
+                                                  counter);
+      if (existing != null) {
+        counter = existing;
+      }
+    }
+    counter.add(start);
+  }
+
+  @Override
+  public void resolution(final Class<?> master,
+                         final Class<?> guest,
+                         final int offset,
+                         final long start) {
+    this.resolutions.increment();
+  }
+
+  @Override
+  public void reduction(final Class<?> master,
+                        final Class<?> guest,
+                        final int depth,
+                        final int offset,
+                        final long start) {
+    this.reductions.increment();
+  }
+
+  @Override
+  public void search(final Class<?> sense,
+                     final int offset,
+                     final int characters,
+                     final long start) {
+    this.searches.add(start);
+    this.characters.add(characters);
+  }
+
+  @Override
+  public void failure(final Class<?> sense,
+                      final Class<?> token,
+                      final int offset,
+                      final long start) {
+    this.failures.add(start);
+  }
+
+  @Override
+  public void exclusion(final int depth) {
+    this.exclusions.increment();
+    this.deepest.accumulate(depth);
+  }
+
+  @Override
+  public void discovery(final Class<?> type) {
+    this.discoveries.increment();
+  }
+
+  @Override
+  public void recognition(final int characters,
+                          final long start) {
+    this.recognitions.add(start);
+  }
+
+  /**
+   * @param master the class of the first object
+   * @param guest the class of the second object
+   * @return the number of the interactions
+   */
+  public long interactions(final Class<?> master,
+                           final Class<?> guest) {
+    final Counter counter = this.counter(master,
+                                         guest);
+    return counter == null ?
+           0 :
+           counter.count.sum();
+  }
+
+  /**
+   * @param master the class of the first object
+   * @param guest the class of the second object
+   * @return the duration of the interactions in nanoseconds, including the nested ones
+   */
+  public long interactionTime(final Class<?> master,
+                              final Class<?> guest) {
+    final Counter counter = this.counter(master,
+                                         guest);
+    return counter == null ?
+           0 :
+           counter.nanos.sum();
+  }
+
+  /**
+   * @return the number of the resolved methods of interactions
+   */
+  public long resolutions() {
+    return this.resolutions.sum();
+  }
+
+  /**
+   * @return the number of the reductions of the chains
+   */
+  public long reductions() {
+    return this.reductions.sum();
+  }
+
+  /**
+   * @return the number of the searches of the leftmost token
+   */
+  public long searches() {
+    return this.searches.count.sum();
+  }
+
+  /**
+   * @return the duration of the searches of the leftmost token in nanoseconds
+   */
+  public long searchTime() {
+    return this.searches.nanos.sum();
+  }
+
+  /**
+   * @return the number of the characters searched for the tokens
+   */
+  public long characters() {
+    return this.characters.sum();
+  }
+
+  /**
+   * @return the number of the failed tokens
+   */
+  public long failures() {
+    return this.failures.count.sum();
+  }
+
+  /**
+   * @return the duration of the re-recognitions after the failures in nanoseconds
+   */
+  public long failureTime() {
+    return this.failures.nanos.sum();
+  }
+
+  /**
+   * @return the number of the recognitions without the failed tokens
+   */
+  public long exclusions() {
+    return this.exclusions.sum();
+  }
+
+  /**
+   * @return the maximal number of the tokens excluded at once
+   */
+  public long deepest() {
+    return this.deepest.get();
+  }
+
+  /**
+   * @return the number of the discoveries of the tokens
+   */
+  public long discoveries() {
+    return this.discoveries.sum();
+  }
+
+  /**
+   * @return the number of the recognized sentences
+   */
+  public long recognitions() {
+    return this.recognitions.count.sum();
+  }
+
+  /**
+   * @return the duration of the recognitions of the sentences in nanoseconds
+   */
+  public long recognitionTime() {
+    return this.recognitions.nanos.sum();
+  }
+
+  /**
+   * @return the interactions, the longest first, and the totals
+   */
+  @Override
+  public String toString() {
+    final List<String> lines = new ArrayList<>(16);
+    final List<long[]> times = new ArrayList<>(16);
+    for (final Map.Entry<Class<?>, ConcurrentMap<Class<?>, Counter>> master : this.interactions.entrySet()) {
+      for (final Map.Entry<Class<?>, Counter> guest : master.getValue()
+                                                             .entrySet()) {
+        times.add(new long[]{guest.getValue().nanos.sum(), lines.size()});
+        lines.add(master.getKey()
+                        .getName() + " + " + guest.getKey()
+                                                  .getName() + ": " + guest.getValue().count.sum() + " times, "
+                  + guest.getValue().nanos.sum() / 1000 + " us");
+      }
+    }
+    times.sort(Comparator.comparingLong((long[] time) -> time[0])
+                         .reversed());
+    final StringBuilder ret = new StringBuilder(64 * (lines.size() + 4));
+    ret.append("sentences: ")
+       .append(this.recognitions())
+       .append(", ")
+       .append(this.recognitionTime() / 1000)
+       .append(" us\nsearches: ")
+       .append(this.searches())
+       .append(", ")
+       .append(this.searchTime() / 1000)
+       .append(" us, characters: ")
+       .append(this.characters())
+       .append("\nfailures: ")
+       .append(this.failures())
+       .append(", ")
+       .append(this.failureTime() / 1000)
+       .append(" us")
+       .append(", exclusions: ")
+       .append(this.exclusions())
+       .append(", deepest: ")
+       .append(this.deepest())
+       .append("\ndiscoveries: ")
+       .append(this.discoveries())
+       .append(", resolutions: ")
+       .append(this.resolutions())
+       .append(", reductions: ")
+       .append(this.reductions());
+    for (final long[] time : times) {
+      ret.append('\n')
+         .append(lines.get((int) time[1]));
+    }
+    return ret.toString();
+  }
+
+  private Counter counter(final Class<?> master,
+                          final Class<?> guest) {
+    final ConcurrentMap<Class<?>, Counter> guests = this.interactions.get(master);
+    return guests == null ?
+           null :
+           guests.get(guest);
+  }
+
+  /**
+   * the number of the events and their duration
+   */
+  private static final class Counter {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    void add(final long start) {
+      this.count.increment();
+      this.nanos.add(System.nanoTime() - start);
+    }
+  }
+}
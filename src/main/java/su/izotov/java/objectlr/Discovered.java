@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Optional;
+import org.cactoos.collection.CollectionOf;
+import org.cactoos.collection.Filtered;
+import org.cactoos.collection.Joined;
+import org.cactoos.collection.Mapped;
+import su.izotov.java.objectlr.token.Token;
+import su.izotov.java.objectlr.tokens.Tokens;
+import su.izotov.java.objectlr.tokens.TokensOf;
+
+/**
+ * Tokens of the language discovered by reflection, cached per class of the sense. The reflection
+ * runs once per class, the result is shared by all instances and threads. The tokens generated at
+ * compile time are used instead, if they are present.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ * @see Sense#tokens()
+ */
+final class Discovered
+    extends ClassValue<Tokens> {
+
+  static final Discovered TOKENS = new Discovered();
+
+  private Discovered() {
+    super();
+  }
+
+  @Override
+  protected Tokens computeValue(final Class<?> type) {
+    Recognition.current()
+               .metrics()
+               .discovery(type);
+    final Optional<Precompiled> generated = Generated.SENSES.get(type);
+    if (generated.isPresent()) {
+      return generated.get()
+                      .tokens();
+    }
+    final Collection<Tokens> tokens = new Mapped<>(constructor -> (Tokens) constructor.newInstance(),
+                                                   Discovered.constructors(type));
+    return new TokensOf(tokens);
+  }
+
+  /**
+   * the discovery of the tokens by reflection
+   * @param type the class of the sense
+   * @return the default constructors of the tokens
+   * @see Sense#tokens()
+   */
+  static Collection<Constructor> constructors(final Class<?> type) {
+    final Collection<Method> allMethods = new CollectionOf<>(type.getMethods());
+    final Collection<Method> concatMethods = new Filtered<>(method -> "concat".equals(method.getName()) && method.getParameterTypes().length == 1,
+                                                            allMethods);
+    Collection<Class> tokenClasses = new LinkedList<>();
+    Collection<Class> parameterClasses = new Mapped<>(method -> method.getParameterTypes()[0],
+                                                      concatMethods);
+    final Collection<Class> usedClasses = new HashSet<>();
+    do {
+      final Collection<Constructor> constructors = new Joined<>(new Mapped<>(clazz1 -> new CollectionOf<>(clazz1.getConstructors()),
+                                                                             parameterClasses));
+      Collection<Class> firstParamCandidates = new Mapped<>(constructor -> constructor.getParameterTypes()[0],
+                                                            new Filtered<>(constructor1 -> constructor1.getParameterTypes().length > 0 && !String.class.isAssignableFrom(constructor1.getParameterTypes()[0]),
+                                                                           constructors));
+      Collection<Class> secondParamCandidates = new Mapped<>(constructor -> constructor.getParameterTypes()[1],
+                                                             new Filtered<>(constructor1 -> constructor1.getParameterTypes().length > 1 && String.class.isAssignableFrom(constructor1.getParameterTypes()[0]),
+                                                                            constructors));
+      final Joined<Class> candidates = new Joined<Class>(firstParamCandidates,
+                                                         secondParamCandidates);
+      tokenClasses = new Joined<Class>(tokenClasses,
+                                       new Filtered<>(clazz -> Token.class.isAssignableFrom(clazz),
+                                                      candidates));
+      parameterClasses = new Filtered<>(clazz -> !usedClasses.contains(clazz),
+                                        new Filtered<>(clazz -> !Token.class.isAssignableFrom(clazz),
+                                                       candidates));
+      usedClasses.addAll(parameterClasses);
+    } while (!parameterClasses.isEmpty())
+        ;
+    final Iterable<Iterable<Constructor>> tokenConstructorSets = new Mapped<>(clazz -> new CollectionOf<>(clazz.getConstructors()),
+                                                                              tokenClasses);
+    final Collection<Constructor> tokenConstructors = new Joined<>(tokenConstructorSets);
+    return new Filtered<>(constructor -> constructor.getParameterTypes().length == 0,
+                          tokenConstructors);
+  }
+}
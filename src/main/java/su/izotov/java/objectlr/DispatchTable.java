@@ -0,0 +1,230 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import su.izotov.java.ddispatch.methods.MethodAmbiguouslyDefinedException;
+import su.izotov.java.ddispatch.methods.ResultFunction;
+
+/**
+ * The table of resolved 'concat' methods, keyed by the pair of master and guest classes. The
+ * overload is searched once, when the pair is seen for the first time, the ambiguity of the
+ * overloads is detected at the same moment and is remembered too. The methods generated at compile
+ * time are used instead of the reflection, if they are present.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+final class DispatchTable
+    extends ClassValue<ConcurrentMap<Class<?>, BiFunction<Sense, Sense, Sense>>> {
+
+  static final DispatchTable CONCAT = new DispatchTable();
+
+  private DispatchTable() {
+    super();
+  }
+
+  /**
+   * the resolved method of the interaction
+   * @param master the first object
+   * @param guest the second object
+   * @return function, applicable to all objects of the same classes
+   * @throws RuntimeException if the method is ambiguously defined for the pair
+   */
+  BiFunction<Sense, Sense, Sense> function(final Sense master,
+                                           final Sense guest) {
+    final ConcurrentMap<Class<?>, BiFunction<Sense, Sense, Sense>> guests = this.get(master.getClass());
+    BiFunction<Sense, Sense, Sense> ret = guests.get(guest.getClass());
+    if (ret == null) {
+      final Recognition recognition = Recognition.current();
+      final Metrics metrics = recognition.metrics();
+      final long start = metrics.time(Metrics.Stage.RESOLUTION);
+      final BiFunction<Sense, Sense, Sense> resolved = DispatchTable.resolved(master,
+                                                                            guest);
+      metrics.resolution(master.getClass(),
+                         guest.getClass(),
+                         recognition.failures()
+                                    .position(),
+                         start);
+      ret = guests.putIfAbsent(guest.getClass(),
+                               resolved);
+      if (ret == null) {
+        ret = resolved;
+      }
+    }
+    if (ret instanceof Ambiguous) {
+      throw new RuntimeException(((Ambiguous) ret).exception);
+    }
+    return ret;
+  }
+
+  /**
+   * @param master the first object
+   * @param guest the second object
+   * @return the generated method of the interaction, or the method found by the reflection
+   */
+  private static BiFunction<Sense, Sense, Sense> resolved(final Sense master,
+                                                         final Sense guest) {
+    final Optional<Precompiled> generated = Generated.SENSES.get(master.getClass());
+    final int method = generated.isPresent() ?
+                       generated.get()
+                                .method(guest.getClass()) :
+                       Precompiled.AMBIGUOUS;
+    BiFunction<Sense, Sense, Sense> ret;
+    if (method == Precompiled.DEFAULT) {
+      ret = new Default();
+    }
+    else if (method != Precompiled.AMBIGUOUS) {
+      ret = new Switched(generated.get(),
+                         master.getClass(),
+                         method);
+    }
+    else {
+      try {
+        ret = new Resolved(new Concat(master,
+                                      guest,
+                                      Chain::new).resultFunction());
+      } catch (final MethodAmbiguouslyDefinedException e) {
+        ret = new Ambiguous(e);
+      }
+    }
+    return ret;
+  }
+
+  @Override
+  protected ConcurrentMap<Class<?>, BiFunction<Sense, Sense, Sense>> computeValue(final Class<?> type) {
+    return new ConcurrentHashMap<>(16);
+  }
+
+  /**
+   * the method found for the pair of classes
+   */
+  private static final class Resolved
+      implements BiFunction<Sense, Sense, Sense> {
+
+    private final ResultFunction<Sense, Sense, Sense> function;
+
+    Resolved(final ResultFunction<Sense, Sense, Sense> function) {
+      this.function = function;
+    }
+
+    @Override
+    public Sense apply(final Sense master,
+                       final Sense guest) {
+      return this.function.apply(master,
+                                 guest);
+    }
+
+    @Override
+    public String toString() {
+      return this.function.toString();
+    }
+  }
+
+  /**
+   * the generated method for the pair of classes
+   */
+  private static final class Switched
+      implements BiFunction<Sense, Sense, Sense> {
+
+    private final Precompiled generated;
+    private final Class<?> type;
+    private final int method;
+
+    Switched(final Precompiled generated,
+             final Class<?> type,
+             final int method) {
+      this.generated = generated;
+      this.type = type;
+      this.method = method;
+    }
+
+    @Override
+    public Sense apply(final Sense master,
+                       final Sense guest) {
+      return this.generated.concat(this.method,
+                                   master,
+                                   guest);
+    }
+
+    @Override
+    public String toString() {
+      final Class<?> parameter = this.generated.parameter(this.method);
+      try {
+        return this.type.getMethod("concat",
+                                   parameter)
+                        .toString();
+      } catch (final NoSuchMethodException ignored) {
+        return this.type.getName() + ".concat(" + parameter.getName() + ')';
+      }
+    }
+  }
+
+  /**
+   * the pair of classes without the applicable method
+   */
+  static final class Default
+      implements BiFunction<Sense, Sense, Sense> {
+
+    @Override
+    public Sense apply(final Sense master,
+                       final Sense guest) {
+      return new Chain(master,
+                       guest);
+    }
+
+    @Override
+    public String toString() {
+      return "default";
+    }
+  }
+
+  /**
+   * the pair of classes, for which the method is ambiguously defined
+   */
+  private static final class Ambiguous
+      implements BiFunction<Sense, Sense, Sense> {
+
+    private final MethodAmbiguouslyDefinedException exception;
+
+    Ambiguous(final MethodAmbiguouslyDefinedException exception) {
+      this.exception = exception;
+    }
+
+    @Override
+    public Sense apply(final Sense master,
+                       final Sense guest) {
+      throw new RuntimeException(this.exception);
+    }
+
+    @Override
+    public String toString() {
+      return this.exception.toString();
+    }
+  }
+}
@@ -41,6 +41,7 @@ public final class Excluded
 
   private final Token token;
   private final Sense sense;
+  private transient volatile Tokens tokens;
 
   /**
    * @param token the excluded token
@@ -52,10 +53,19 @@ public final class Excluded
     this.sense = sense;
   }
 
+  /**
+   * the tokens of the recognizer without the excluded one, created once
+   * @return tokens
+   */
   @Override
   public final Tokens tokens() {
-    return this.sense.tokens()
-                     .exclude(this.token);
+    Tokens ret = this.tokens;
+    if (ret == null) {
+      ret = this.sense.tokens()
+                      .exclude(this.token);
+      this.tokens = ret;
+    }
+    return ret;
   }
 
   @Override
@@ -68,6 +78,20 @@ public final class Excluded
     return this.sense.toSource();
   }
 
+  @Override
+  public final void appendSource(final StringBuilder builder) {
+    this.sense.appendSource(builder);
+  }
+
+  /**
+   * @return the number of the tokens excluded by this sense and the senses it wraps
+   */
+  int depth() {
+    return this.sense instanceof Excluded ?
+           ((Excluded) this.sense).depth() + 1 :
+           1;
+  }
+
   public final Sense concat(final Sense sense) {
     return this.sense.concatDD(sense);
   }
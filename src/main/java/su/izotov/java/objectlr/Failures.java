@@ -0,0 +1,270 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.token.Failed;
+import su.izotov.java.objectlr.token.Token;
+
+/**
+ * The memo of the failed tokens of the recognition run. The token, which failed after the sense
+ * of some class at some offset of the text, is assumed to fail there again, so the repeated
+ * attempt is replaced by the re-recognition of the token as text at once. The offsets are tracked
+ * from the beginning of the sentence; where the offset of the text is unknown, nothing is
+ * remembered or skipped.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+final class Failures {
+
+  private final boolean memo;
+  private final Set<Key> failed = new HashSet<>(16);
+  /**
+   * the buffers, which the tokens were appended to, with the tokens and their offsets
+   */
+  private final Map<Sense, Appended> appended = new IdentityHashMap<>(16);
+  /**
+   * the offset of the text, which will be recognized next, or -1 if it is unknown
+   */
+  private int offset = -1;
+  /**
+   * the number of the failures of the run
+   */
+  private int count;
+  /**
+   * the rest of the source text, which the last recognized text starts
+   */
+  private Source rest;
+
+  /**
+   * @param memo whether the failures are remembered
+   */
+  Failures(final boolean memo) {
+    this.memo = memo;
+  }
+
+  /**
+   * forget the failures of the previous run
+   */
+  void clear() {
+    this.failed.clear();
+    this.appended.clear();
+    this.offset = -1;
+    this.count = 0;
+    this.rest = null;
+  }
+
+  /**
+   * @return true, if the failures are remembered
+   */
+  boolean memo() {
+    return this.memo;
+  }
+
+  /**
+   * @return the number of the tokens, which failed during the run
+   */
+  int count() {
+    return this.count;
+  }
+
+  /**
+   * @param offset the offset of the text, which will be recognized next
+   */
+  void at(final int offset) {
+    this.offset = this.memo ?
+                  offset :
+                  -1;
+  }
+
+  /**
+   * @return the offset of the text, which is recognized now, or -1 if it is unknown
+   */
+  int start() {
+    final int ret = this.offset;
+    this.offset = -1;
+    return ret;
+  }
+
+  /**
+   * @param sense the sense before the token
+   * @param token the token
+   * @param offset the offset of the token
+   * @return true, if the token has already failed there
+   */
+  boolean failed(final Sense sense,
+                 final Token token,
+                 final int offset) {
+    return this.memo && offset != -1 && this.failed.contains(new Key(sense,
+                                                                     token,
+                                                                     offset));
+  }
+
+  /**
+   * the text before the next token is recognized
+   * @param rest the rest of the source text, starting with the text
+   */
+  void recognized(final Source rest) {
+    this.rest = rest;
+  }
+
+  /**
+   * @return the offset of the text, which was recognized last, in its source, or -1 if it is
+   * unknown
+   */
+  int position() {
+    return this.rest == null ?
+           -1 :
+           this.rest.offset();
+  }
+
+  /**
+   * The text of the failed token and the following text to re-recognize. The token usually fails
+   * on the text, which was recognized last, and it precedes the text in the source. If the source
+   * contains the same characters there, the window of the source is taken, so the occurrences of
+   * the tokens found in the source are not searched again.
+   * @param failed the failed token and the following text
+   * @return the text
+   */
+  Source source(final Failed failed) {
+    final String text = failed.toSource();
+    return this.rest == null ?
+           new Source(text) :
+           this.rest.windowOf(text,
+                              failed.token()
+                                    .toSource()
+                                    .length());
+  }
+
+  /**
+   * The token was appended to the buffer. The buffer is created anew for every token, so the
+   * failure of the token is recognized by the buffer, which receives it.
+   * @param result the result of the interaction with the token
+   * @param token the token
+   * @param offset the offset of the token
+   */
+  void appended(final Sense result,
+                final Token token,
+                final int offset) {
+    if (this.memo && offset != -1 && result instanceof Chain && ((Chain) result).current() == token) {
+      this.appended.put(((Chain) result).parent(),
+                        new Appended(token,
+                                     offset));
+    }
+  }
+
+  /**
+   * The token, which was appended to the buffer, failed; its text will be recognized again. The
+   * failure is remembered, and the offset of the token is the offset of the text recognized next.
+   * @param buffer the buffer or the sense, which receives the failure
+   * @param token the token
+   */
+  void failure(final Sense buffer,
+               final Token token) {
+    this.count++;
+    final Appended appended = this.appended.remove(buffer);
+    if (this.memo && appended != null && appended.token == token) {
+      this.failed.add(new Key(Failures.before(buffer),
+                              token,
+                              appended.offset));
+      this.offset = appended.offset;
+    }
+    else {
+      this.offset = -1;
+    }
+  }
+
+  /**
+   * @param buffer the buffer
+   * @return the last sense of the buffer
+   */
+  private static Sense before(final Sense buffer) {
+    final Sense ret;
+    if (buffer instanceof Chain) {
+      ret = ((Chain) buffer).current();
+    }
+    else if (buffer instanceof One) {
+      ret = ((One) buffer).sense();
+    }
+    else {
+      ret = buffer;
+    }
+    return ret;
+  }
+
+  /**
+   * the token appended at the offset
+   */
+  private static final class Appended {
+
+    private final Token token;
+    private final int offset;
+
+    Appended(final Token token,
+             final int offset) {
+      this.token = token;
+      this.offset = offset;
+    }
+  }
+
+  /**
+   * the failed token of the class at the offset after the sense of the class
+   */
+  private static final class Key {
+
+    private final Class<?> sense;
+    private final Class<?> type;
+    private final String token;
+    private final int offset;
+
+    Key(final Sense sense,
+        final Token token,
+        final int offset) {
+      this.sense = sense.getClass();
+      this.type = token.getClass();
+      this.token = token.toSource();
+      this.offset = offset;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key) other;
+      return this.offset == key.offset && this.sense.equals(key.sense) && this.type.equals(key.type) && this.token.equals(key.token);
+    }
+
+    @Override
+    public int hashCode() {
+      return ((this.sense.hashCode() * 31 + this.type.hashCode()) * 31 + this.token.hashCode()) * 31 + this.offset;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.Optional;
+
+/**
+ * The generated tokens and interactions of the classes of senses, looked up once per class.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ * @see Precompiled
+ */
+final class Generated
+    extends ClassValue<Optional<Precompiled>> {
+
+  static final Generated SENSES = new Generated();
+  private static final String SUFFIX = "_Senses";
+
+  private Generated() {
+    super();
+  }
+
+  /**
+   * @param type the class of senses
+   * @return the name of the generated class
+   */
+  static String name(final Class<?> type) {
+    final String name = type.getName();
+    final int dot = name.lastIndexOf('.');
+    return name.substring(0,
+                          dot + 1) + name.substring(dot + 1)
+                                         .replace('$',
+                                                  '_') + SUFFIX;
+  }
+
+  @Override
+  protected Optional<Precompiled> computeValue(final Class<?> type) {
+    final ClassLoader loader = type.getClassLoader();
+    if (loader == null) {
+      return Optional.empty();
+    }
+    final Class<?> generated;
+    try {
+      generated = Class.forName(Generated.name(type),
+                                true,
+                                loader);
+    } catch (final ClassNotFoundException ignored) {
+      return Optional.empty();
+    }
+    if (!Precompiled.class.isAssignableFrom(generated)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of((Precompiled) generated.getConstructor()
+                                                .newInstance());
+    } catch (final ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
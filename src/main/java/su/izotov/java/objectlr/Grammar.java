@@ -0,0 +1,473 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import su.izotov.java.objectlr.tokens.Tokens;
+import su.izotov.java.objectlr.tokens.TokensOf;
+
+/**
+ * The language compiled from the class of the master sense: the tokens of the senses and the
+ * methods of their interactions. The senses are the classes reachable from the master through the
+ * parameters and the results of the 'concat' methods and the parameters of the constructors. The
+ * grammar is immutable and is shared by the recognitions in any threads; it is written to a stream
+ * and read back, so the reflective search is not repeated at every start of the application. The
+ * classes with the generated tokens and interactions are left to them.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ * @see Recognition#Recognition(Trace, Grammar)
+ */
+public final class Grammar {
+
+  /**
+   * the grammar without senses, everything is discovered by reflection
+   */
+  static final Grammar EMPTY = new Grammar(Collections.emptyMap(),
+                                           Collections.emptyMap());
+  private static final int MAGIC = 0x4F4C5247;
+  private static final int VERSION = 1;
+  /**
+   * the classes of the tokens of the senses
+   */
+  private final Map<Class<?>, List<Class<?>>> classes;
+  /**
+   * the methods of the interactions of the senses with the guests, null for the default one
+   */
+  private final Map<Class<?>, Map<Class<?>, Method>> methods;
+  private final Map<Class<?>, Tokens> tokens;
+  private final Map<Class<?>, Map<Class<?>, BiFunction<Sense, Sense, Sense>>> functions;
+
+  private Grammar(final Map<Class<?>, List<Class<?>>> classes,
+                  final Map<Class<?>, Map<Class<?>, Method>> methods) {
+    this.classes = classes;
+    this.methods = methods;
+    final Map<Class<?>, Tokens> tokens = new HashMap<>(classes.size() * 2);
+    for (final Map.Entry<Class<?>, List<Class<?>>> entry : classes.entrySet()) {
+      final List<Tokens> instances = new ArrayList<>(entry.getValue()
+                                                          .size());
+      for (final Class<?> token : entry.getValue()) {
+        try {
+          instances.add((Tokens) token.getConstructor()
+                                      .newInstance());
+        } catch (final ReflectiveOperationException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+      tokens.put(entry.getKey(),
+                 new TokensOf(instances));
+    }
+    this.tokens = Collections.unmodifiableMap(tokens);
+    final Map<Class<?>, Map<Class<?>, BiFunction<Sense, Sense, Sense>>> functions = new HashMap<>(methods.size() * 2);
+    for (final Map.Entry<Class<?>, Map<Class<?>, Method>> entry : methods.entrySet()) {
+      final Map<Class<?>, BiFunction<Sense, Sense, Sense>> guests = new HashMap<>(entry.getValue()
+                                                                                        .size() * 2);
+      for (final Map.Entry<Class<?>, Method> guest : entry.getValue()
+                                                          .entrySet()) {
+        guests.put(guest.getKey(),
+                   guest.getValue() == null ?
+                   new DispatchTable.Default() :
+                   new Invoked(guest.getValue()));
+      }
+      functions.put(entry.getKey(),
+                    Collections.unmodifiableMap(guests));
+    }
+    this.functions = Collections.unmodifiableMap(functions);
+  }
+
+  /**
+   * compiles the language of the master sense
+   * @param master the class of the master sense
+   * @return the grammar
+   */
+  public static Grammar of(final Class<? extends Sense> master) {
+    final Set<Class<?>> senses = Grammar.senses(master);
+    final Map<Class<?>, List<Class<?>>> classes = new LinkedHashMap<>(senses.size() * 2);
+    final Map<Class<?>, Map<Class<?>, Method>> methods = new LinkedHashMap<>(senses.size() * 2);
+    for (final Class<?> sense : senses) {
+      if (Generated.SENSES.get(sense)
+                          .isPresent()) {
+        continue;
+      }
+      if (Grammar.discovered(sense)) {
+        final List<Class<?>> tokens = new ArrayList<>(16);
+        for (final Constructor constructor : Discovered.constructors(sense)) {
+          tokens.add(constructor.getDeclaringClass());
+        }
+        classes.put(sense,
+                    Collections.unmodifiableList(tokens));
+      }
+      final Map<Class<?>, Method> guests = new LinkedHashMap<>(senses.size() * 2);
+      for (final Class<?> guest : senses) {
+        final List<Method> applicable = Grammar.applicable(sense,
+                                                           guest);
+        if (applicable.size() < 2) {
+          guests.put(guest,
+                     applicable.isEmpty() ?
+                     null :
+                     applicable.get(0));
+        }
+      }
+      methods.put(sense,
+                  Collections.unmodifiableMap(guests));
+    }
+    return new Grammar(Collections.unmodifiableMap(classes),
+                       Collections.unmodifiableMap(methods));
+  }
+
+  /**
+   * reads the grammar written by {@link #write(OutputStream)}
+   * @param input the stream
+   * @param loader the class loader of the senses
+   * @return the grammar
+   * @throws IOException if the stream is not a grammar, or the classes of the grammar are changed
+   */
+  public static Grammar read(final InputStream input,
+                             final ClassLoader loader) throws
+                                                       IOException {
+    final DataInputStream data = new DataInputStream(input);
+    if (data.readInt() != MAGIC) {
+      throw new IOException("Not a grammar");
+    }
+    final int version = data.readShort();
+    if (version != VERSION) {
+      throw new IOException("Unsupported version of the grammar: " + version);
+    }
+    final Class<?>[] types = new Class<?>[data.readInt()];
+    for (int index = 0;
+         index < types.length;
+         index++) {
+      final String name = data.readUTF();
+      try {
+        types[index] = Class.forName(name,
+                                     false,
+                                     loader);
+      } catch (final ClassNotFoundException e) {
+        throw new IOException(e);
+      }
+    }
+    final Map<Class<?>, List<Class<?>>> classes = new LinkedHashMap<>(16);
+    for (int sense = data.readInt();
+         sense > 0;
+         sense--) {
+      final Class<?> type = types[data.readInt()];
+      final List<Class<?>> tokens = new ArrayList<>(16);
+      for (int token = data.readInt();
+           token > 0;
+           token--) {
+        tokens.add(types[data.readInt()]);
+      }
+      classes.put(type,
+                  Collections.unmodifiableList(tokens));
+    }
+    final Map<Class<?>, Map<Class<?>, Method>> methods = new LinkedHashMap<>(16);
+    for (int sense = data.readInt();
+         sense > 0;
+         sense--) {
+      final Class<?> type = types[data.readInt()];
+      final Map<Class<?>, Method> found = new HashMap<>(16);
+      final Map<Class<?>, Method> guests = new LinkedHashMap<>(16);
+      for (int guest = data.readInt();
+           guest > 0;
+           guest--) {
+        final Class<?> key = types[data.readInt()];
+        final int parameter = data.readInt();
+        Method method = null;
+        if (parameter != -1) {
+          method = found.get(types[parameter]);
+          if (method == null) {
+            try {
+              method = type.getMethod("concat",
+                                      types[parameter]);
+            } catch (final NoSuchMethodException e) {
+              throw new IOException(e);
+            }
+            found.put(types[parameter],
+                      method);
+          }
+        }
+        guests.put(key,
+                   method);
+      }
+      methods.put(type,
+                  Collections.unmodifiableMap(guests));
+    }
+    return new Grammar(Collections.unmodifiableMap(classes),
+                       Collections.unmodifiableMap(methods));
+  }
+
+  /**
+   * writes the grammar as the names of the classes and the numbers of them
+   * @param output the stream
+   * @throws IOException if the stream fails
+   */
+  public void write(final OutputStream output) throws
+                                                IOException {
+    final Map<Class<?>, Integer> indices = new LinkedHashMap<>(64);
+    for (final Map.Entry<Class<?>, List<Class<?>>> entry : this.classes.entrySet()) {
+      Grammar.index(indices,
+                    entry.getKey());
+      for (final Class<?> token : entry.getValue()) {
+        Grammar.index(indices,
+                      token);
+      }
+    }
+    for (final Map.Entry<Class<?>, Map<Class<?>, Method>> entry : this.methods.entrySet()) {
+      Grammar.index(indices,
+                    entry.getKey());
+      for (final Map.Entry<Class<?>, Method> guest : entry.getValue()
+                                                          .entrySet()) {
+        Grammar.index(indices,
+                      guest.getKey());
+        if (guest.getValue() != null) {
+          Grammar.index(indices,
+                        guest.getValue()
+                             .getParameterTypes()[0]);
+        }
+      }
+    }
+    final DataOutputStream data = new DataOutputStream(output);
+    data.writeInt(MAGIC);
+    data.writeShort(VERSION);
+    data.writeInt(indices.size());
+    for (final Class<?> type : indices.keySet()) {
+      data.writeUTF(type.getName());
+    }
+    data.writeInt(this.classes.size());
+    for (final Map.Entry<Class<?>, List<Class<?>>> entry : this.classes.entrySet()) {
+      data.writeInt(indices.get(entry.getKey()));
+      data.writeInt(entry.getValue()
+                         .size());
+      for (final Class<?> token : entry.getValue()) {
+        data.writeInt(indices.get(token));
+      }
+    }
+    data.writeInt(this.methods.size());
+    for (final Map.Entry<Class<?>, Map<Class<?>, Method>> entry : this.methods.entrySet()) {
+      data.writeInt(indices.get(entry.getKey()));
+      data.writeInt(entry.getValue()
+                         .size());
+      for (final Map.Entry<Class<?>, Method> guest : entry.getValue()
+                                                          .entrySet()) {
+        data.writeInt(indices.get(guest.getKey()));
+        data.writeInt(guest.getValue() == null ?
+                      -1 :
+                      indices.get(guest.getValue()
+                                       .getParameterTypes()[0]));
+      }
+    }
+    data.flush();
+  }
+
+  /**
+   * @param type the class of the sense
+   * @return the tokens of the sense
+   * @see Sense#tokens()
+   */
+  Tokens tokens(final Class<?> type) {
+    final Tokens ret = this.tokens.get(type);
+    return ret == null ?
+           Discovered.TOKENS.get(type) :
+           ret;
+  }
+
+  /**
+   * the method of the interaction
+   * @param master the first object
+   * @param guest the second object
+   * @return function, applicable to all objects of the same classes
+   */
+  BiFunction<Sense, Sense, Sense> function(final Sense master,
+                                           final Sense guest) {
+    final Map<Class<?>, BiFunction<Sense, Sense, Sense>> guests = this.functions.get(master.getClass());
+    BiFunction<Sense, Sense, Sense> ret = null;
+    if (guests != null) {
+      ret = guests.get(guest.getClass());
+    }
+    if (ret == null) {
+      ret = DispatchTable.CONCAT.function(master,
+                                          guest);
+    }
+    return ret;
+  }
+
+  /**
+   * @param master the class of the master sense
+   * @return the concrete classes of the senses reachable from the master
+   */
+  private static Set<Class<?>> senses(final Class<?> master) {
+    final Set<Class<?>> seen = new LinkedHashSet<>(64);
+    final Deque<Class<?>> next = new ArrayDeque<>(64);
+    next.add(master);
+    while (!next.isEmpty()) {
+      final Class<?> type = next.pop();
+      if (!Sense.class.isAssignableFrom(type) || !seen.add(type)) {
+        continue;
+      }
+      for (final Method method : type.getMethods()) {
+        if (Grammar.concat(method)) {
+          next.add(method.getParameterTypes()[0]);
+          next.add(method.getReturnType());
+        }
+      }
+      for (final Constructor<?> constructor : type.getConstructors()) {
+        Collections.addAll(next,
+                           constructor.getParameterTypes());
+      }
+    }
+    final Set<Class<?>> ret = new LinkedHashSet<>(seen.size() * 2);
+    for (final Class<?> type : seen) {
+      if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+        ret.add(type);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * @param type the class of the sense
+   * @return true, if the tokens of the sense are discovered by reflection
+   */
+  private static boolean discovered(final Class<?> type) {
+    try {
+      return type.getMethod("tokens")
+                 .getDeclaringClass() == Sense.class;
+    } catch (final NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * the most specific 'concat' methods of the master applicable to the guest, as the double
+   * dispatch selects them
+   * @param master the class of the master
+   * @param guest the class of the guest
+   * @return the methods, more than one if the method is ambiguously defined
+   */
+  private static List<Method> applicable(final Class<?> master,
+                                         final Class<?> guest) {
+    final List<Class<?>> parameters = new ArrayList<>(8);
+    for (final Method method : master.getMethods()) {
+      if (Grammar.concat(method) && method.getParameterTypes()[0].isAssignableFrom(guest) && !parameters.contains(method.getParameterTypes()[0])) {
+        parameters.add(method.getParameterTypes()[0]);
+      }
+    }
+    final List<Method> ret = new ArrayList<>(1);
+    for (final Class<?> parameter : parameters) {
+      boolean specific = true;
+      for (final Class<?> other : parameters) {
+        if (other != parameter && parameter.isAssignableFrom(other)) {
+          specific = false;
+        }
+      }
+      if (specific) {
+        try {
+          ret.add(master.getMethod("concat",
+                                   parameter));
+        } catch (final NoSuchMethodException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * @param method the method
+   * @return true, if it is the 'concat' method with one parameter
+   */
+  private static boolean concat(final Method method) {
+    return "concat".equals(method.getName()) && method.getParameterTypes().length == 1;
+  }
+
+  /**
+   * @param indices the numbers of the written classes
+   * @param type the class, which is numbered, if it is not yet
+   */
+  private static void index(final Map<Class<?>, Integer> indices,
+                            final Class<?> type) {
+    if (!indices.containsKey(type)) {
+      indices.put(type,
+                  indices.size());
+    }
+  }
+
+  /**
+   * the method of the interaction, called by reflection
+   */
+  private static final class Invoked
+      implements BiFunction<Sense, Sense, Sense> {
+
+    private final Method method;
+
+    Invoked(final Method method) {
+      this.method = method;
+      this.method.setAccessible(true);
+    }
+
+    @Override
+    public Sense apply(final Sense master,
+                       final Sense guest) {
+      try {
+        return (Sense) this.method.invoke(master,
+                                          guest);
+      } catch (final IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      } catch (final InvocationTargetException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        if (e.getCause() instanceof Error) {
+          throw (Error) e.getCause();
+        }
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+
+    @Override
+    public String toString() {
+      return this.method.toString();
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import su.izotov.java.objectlr.token.Token;
+
+/**
+ * The listener of the results of the recognition. The recognizer reports the text, the tokens and
+ * the results of their interactions in the order of the source text, as soon as they are found,
+ * so the results can be consumed while the recognition goes on. A token, which fails later, is
+ * reported once more as the text it is re-recognized as.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public interface Listener {
+
+  /**
+   * the text before the token is found
+   * @param text the text
+   */
+  void onText(CharSequence text);
+
+  /**
+   * the leftmost token of the rest of the source is found
+   * @param token the token
+   */
+  void onToken(Token token);
+
+  /**
+   * the text or the token interacted with the preceding sense into the new sense
+   * @param sense the result of the interaction
+   */
+  void onReduced(Sense sense);
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import su.izotov.java.objectlr.print.Cell;
+import su.izotov.java.objectlr.print.CellOf;
+import su.izotov.java.objectlr.print.Spaces;
+
+/**
+ * The trace, written to the logger at the INFO level, when the outermost interaction is finished.
+ * Only the interacting objects are remembered during the recognition, the formatted text is
+ * created when the logger accepts the record. Nothing is remembered, if the logger does not
+ * accept INFO records. The object is not thread-safe.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class Logged
+    implements Trace {
+
+  private final Logger logger;
+  private List<Step> steps;
+  private int depth;
+
+  /**
+   * Trace to the global logger
+   */
+  public Logged() {
+    this(Logger.getGlobal());
+  }
+
+  /**
+   * @param logger the logger
+   */
+  public Logged(final Logger logger) {
+    this.logger = logger;
+  }
+
+  @Override
+  public void interaction(final Sense master,
+                          final Sense guest,
+                          final Object function) {
+    if (this.depth == 0) {
+      this.steps = this.logger.isLoggable(Level.INFO) ?
+                   new ArrayList<>(16) :
+                   null;
+    }
+    if (this.steps != null) {
+      this.steps.add(new Step(this.depth,
+                              master,
+                              guest,
+                              function,
+                              null));
+    }
+    this.depth++;
+  }
+
+  @Override
+  public void result(final Sense result) {
+    this.depth--;
+    if (this.steps != null) {
+      this.steps.add(new Step(this.depth,
+                              null,
+                              null,
+                              null,
+                              result));
+      if (this.depth == 0) {
+        final List<Step> finished = this.steps;
+        this.steps = null;
+        this.logger.info(() -> Logged.render(finished));
+      }
+    }
+  }
+
+  private static String render(final List<Step> steps) {
+    Cell done = new CellOf("");
+    Cell line = new CellOf("");
+    for (final Step step : steps) {
+      done = done.addBottom(line);
+      line = step.toVisual();
+    }
+    return done.addBottom(line)
+               .toSource();
+  }
+
+  /**
+   * the started or finished interaction
+   */
+  private static final class Step {
+
+    private final int depth;
+    private final Sense master;
+    private final Sense guest;
+    private final Object function;
+    private final Sense result;
+
+    Step(final int depth,
+         final Sense master,
+         final Sense guest,
+         final Object function,
+         final Sense result) {
+      this.depth = depth;
+      this.master = master;
+      this.guest = guest;
+      this.function = function;
+      this.result = result;
+    }
+
+    Cell toVisual() {
+      final Cell ret;
+      if (this.result == null) {
+        ret = new Spaces(this.depth).addRight(this.master.toVisual()
+                                                         .addRight(" | ")
+                                                         .addRight(this.guest.toVisual()))
+                                    .addRight(new CellOf(" - " + this.function.toString()));
+      }
+      else {
+        ret = new Spaces(this.depth).addRight(new CellOf("VVVVV").addBottom(this.result.toVisual())
+                                                                 .addBottom(new CellOf("-----")));
+      }
+      return ret;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+/**
+ * The metrics of the recognition. The durations are measured from the start, returned by
+ * {@link #time(Stage)} when the stage begins, so the metrics, which do not measure the time, do
+ * not read the clock, and the metrics, which record the stages as events, may begin the event
+ * there. The stages of one thread are nested, the stage, which began later, is finished first.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public interface Metrics {
+
+  /**
+   * the stage of the recognition begins
+   * @param stage the stage
+   * @return the start of the stage, passed to the method, which finishes it
+   */
+  long time(Stage stage);
+
+  /**
+   * the interaction of senses is finished
+   * @param master the class of the first object
+   * @param guest the class of the second object
+   * @param start the start of the interaction
+   */
+  void interaction(Class<?> master,
+                   Class<?> guest,
+                   long start);
+
+  /**
+   * the method of the interaction of the classes is resolved
+   * @param master the class of the first object
+   * @param guest the class of the second object
+   * @param offset the offset of the text recognized last, or -1 if it is unknown
+   * @param start the start of the resolution
+   */
+  void resolution(Class<?> master,
+                  Class<?> guest,
+                  int offset,
+                  long start);
+
+  /**
+   * the guest interacted with the last sense of the chain into the new sense, which was appended
+   * to the rest of the chain
+   * @param master the class of the last sense of the chain
+   * @param guest the class of the guest
+   * @param depth the number of the senses of the chain, which interacted with the results
+   * @param offset the offset of the text recognized last, or -1 if it is unknown
+   * @param start the start of the reduction
+   */
+  void reduction(Class<?> master,
+                 Class<?> guest,
+                 int depth,
+                 int offset,
+                 long start);
+
+  /**
+   * the leftmost token is searched
+   * @param sense the class of the sense, which tokens are searched
+   * @param offset the position of the search in the original text, or -1 if it is unknown
+   * @param characters the characters till the end of the found token, or all the characters of
+   * the text, if the token is not found
+   * @param start the start of the search
+   */
+  void search(Class<?> sense,
+              int offset,
+              int characters,
+              long start);
+
+  /**
+   * the token failed and the text is re-recognized without it
+   * @param sense the class of the sense before the token
+   * @param token the class of the token
+   * @param offset the offset of the text recognized last before the failure, or -1 if it is
+   * unknown
+   * @param start the start of the re-recognition
+   */
+  void failure(Class<?> sense,
+               Class<?> token,
+               int offset,
+               long start);
+
+  /**
+   * the sense recognizes the text without the failed tokens
+   * @param depth the number of the excluded tokens
+   */
+  void exclusion(int depth);
+
+  /**
+   * the tokens of the class of senses are discovered
+   * @param type the class of senses
+   */
+  void discovery(Class<?> type);
+
+  /**
+   * the recognition of the sentence is finished
+   * @param characters the characters of the sentence, or -1 if they are unknown
+   * @param start the start of the recognition
+   */
+  void recognition(int characters,
+                   long start);
+
+  /**
+   * the stages of the recognition, which are measured
+   */
+  enum Stage {
+    /**
+     * the interaction of senses
+     */
+    INTERACTION,
+    /**
+     * the resolution of the method of the interaction
+     */
+    RESOLUTION,
+    /**
+     * the reduction of the chain
+     */
+    REDUCTION,
+    /**
+     * the search of the leftmost token
+     */
+    SEARCH,
+    /**
+     * the re-recognition after the failure of the token
+     */
+    FAILURE,
+    /**
+     * the recognition of the sentence
+     */
+    RECOGNITION
+  }
+}
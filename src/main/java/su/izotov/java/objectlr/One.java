@@ -47,7 +47,20 @@ public final class One
 
   @Override
   public final Sense concat(final Sense sense) {
-    return this.sense.concatDD(sense);
+    final Sense ret = this.sense.concatDD(sense);
+    Recognizer.reduced(Recognition.current()
+                                  .listener(),
+                       this.sense,
+                       sense,
+                       ret);
+    return ret;
+  }
+
+  /**
+   * @return the sense in the buffer
+   */
+  Sense sense() {
+    return this.sense;
   }
 
   @Override
@@ -69,4 +82,9 @@ public final class One
   public final String toSource() {
     return this.sense.toSource();
   }
+
+  @Override
+  public final void appendSource(final StringBuilder builder) {
+    this.sense.appendSource(builder);
+  }
 }
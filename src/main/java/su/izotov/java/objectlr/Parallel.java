@@ -0,0 +1,286 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Logger;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.token.EOF;
+import su.izotov.java.objectlr.token.Marker;
+import su.izotov.java.objectlr.token.Token;
+import su.izotov.java.objectlr.tokens.Lexer;
+import su.izotov.java.objectlr.tokens.Tokens;
+
+/**
+ * The sentence, which is split after the separators into segments, recognized in parallel. The
+ * separator is a {@link Marker}, which does not interact with any sense, so the recognition of
+ * the text after it does not depend on the text before it. The text is split only where the scan
+ * by the tokens of the master finds the separator itself, not a longer token containing it. The
+ * first segment is recognized by the master, the others by the separator, and the senses of each
+ * segment are appended to the result of the previous one, as the sequential recognition would
+ * append them. When the segment can not be joined so, or a token failed in it, the text from the
+ * start of the segment to the end is recognized by the previous result sequentially, so the result
+ * is the same as the result of the {@link Sentence}. The segments are recognized with the grammar
+ * and the metrics of the context. The context with a trace or a listener is recognized
+ * sequentially, because they expect the interactions in the order of the text.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @param <T> The type of the master object that will understand the sentence text
+ * @param <R> the type of recognizable object
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public class Parallel<T extends Sense, R extends Sense> {
+
+  private final CharSequence text;
+  private final T master;
+  private final Marker separator;
+  private final ForkJoinPool pool;
+  private final int segment;
+
+  /**
+   * the sentence, recognized by the common pool in segments of 64K characters at least
+   * @param text the text
+   * @param master the master object
+   * @param separator the separator of the segments
+   */
+  protected Parallel(final CharSequence text,
+                     final T master,
+                     final Marker separator) {
+    this(text,
+         master,
+         separator,
+         ForkJoinPool.commonPool(),
+         65536);
+  }
+
+  /**
+   * @param text the text
+   * @param master the master object
+   * @param separator the separator of the segments
+   * @param pool the pool recognizing the segments
+   * @param segment the minimal length of the segment
+   */
+  protected Parallel(final CharSequence text,
+                     final T master,
+                     final Marker separator,
+                     final ForkJoinPool pool,
+                     final int segment) {
+    this.text = text;
+    this.master = master;
+    this.separator = separator;
+    this.pool = pool;
+    this.segment = segment;
+  }
+
+  /**
+   * recognize the text and convert it into Object
+   * @return an object
+   * @throws RecognitionException if recognition process fail
+   */
+  public final R toObject() throws
+                            RecognitionException {
+    return this.toObject(new Recognition());
+  }
+
+  /**
+   * recognize the text within the given context and convert it into Object
+   * @param recognition the context of the recognition run
+   * @return an object
+   * @throws RecognitionException if recognition process fail
+   */
+  @SuppressWarnings("unchecked")
+  public final R toObject(final Recognition recognition) throws
+                                                         RecognitionException {
+    final long start = recognition.metrics()
+                                  .time(Metrics.Stage.RECOGNITION);
+    final Sense ret;
+    try {
+      ret = recognition.run(() -> {
+        if (recognition.trace() instanceof Silent && recognition.listener() instanceof Deaf) {
+          return this.joined(recognition)
+                     .concatDD(new EOF());
+        }
+        recognition.failures()
+                   .at(0);
+        return this.master.concat(new Source(this.text))
+                          .concatDD(new EOF());
+      });
+    } finally {
+      recognition.metrics()
+                 .recognition(this.text.length(),
+                              start);
+    }
+    try {
+      return (R) ret;
+    } catch (final RuntimeException ignored) {
+      Logger.getGlobal()
+            .info("Unrecognizable text!");
+      Logger.getGlobal()
+            .info(ret.toVisual()
+                     .toSource());
+      throw new RecognitionException(ret);
+    }
+  }
+
+  /**
+   * The text is scanned by the tokens of the master, and each segment is submitted to the pool as
+   * soon as the separator after it is found. The results of the segments are joined in the order
+   * of the text.
+   * @param recognition the context of the recognition run
+   * @return the result of all the segments
+   */
+  private Sense joined(final Recognition recognition) {
+    final List<Integer> bounds = new ArrayList<>(this.text.length() / Integer.max(this.segment,
+                                                                                    1) + 1);
+    final List<Recognition> contexts = new ArrayList<>(bounds.size());
+    final List<ForkJoinTask<Sense>> segments = new ArrayList<>(bounds.size());
+    bounds.add(0);
+    final Lexer lexer = new Lexer(this.master.tokens());
+    final IntBuffer found = IntBuffer.allocate(768);
+    int from = 0;
+    while (from != -1) {
+      found.clear();
+      from = lexer.lex(this.text,
+                       from,
+                       found);
+      found.flip();
+      while (found.hasRemaining()) {
+        final Tokens member = lexer.member(found.get());
+        final int begin = found.get();
+        final int end = found.get();
+        if (begin >= bounds.get(bounds.size() - 1) + this.segment && end < this.text.length()
+            && member instanceof Token && this.separator.contains((Token) member)) {
+          bounds.add(end);
+          this.submit(recognition,
+                      bounds,
+                      contexts,
+                      segments);
+        }
+      }
+    }
+    bounds.add(this.text.length());
+    this.submit(recognition,
+                bounds,
+                contexts,
+                segments);
+    Sense ret = this.master;
+    for (int index = 0;
+         index < segments.size();
+         index++) {
+      final Sense next = segments.get(index)
+                                 .join();
+      final Sense appended = contexts.get(index)
+                                     .failures()
+                                     .count() > 0 ?
+                             null :
+                             index == 0 ?
+                             next :
+                             this.appended(ret,
+                                           next);
+      if (appended == null) {
+        for (final ForkJoinTask<Sense> rest : segments.subList(index + 1,
+                                                               segments.size())) {
+          rest.cancel(false);
+        }
+        return index == 0 ?
+               this.master.concat(new Source(this.text)) :
+               ret.concatDD(new Source(this.text.subSequence(bounds.get(index),
+                                                             this.text.length())));
+      }
+      ret = appended;
+    }
+    return ret;
+  }
+
+  /**
+   * submit the recognition of the last segment to the pool
+   * @param recognition the context of the recognition run
+   * @param bounds the starts of the segments and the end of the last one
+   * @param contexts the contexts of the segments
+   * @param segments the recognitions of the segments
+   */
+  private void submit(final Recognition recognition,
+                      final List<Integer> bounds,
+                      final List<Recognition> contexts,
+                      final List<ForkJoinTask<Sense>> segments) {
+    final Sense first = segments.isEmpty() ?
+                        this.master :
+                        this.separator;
+    final CharSequence part = this.text.subSequence(bounds.get(bounds.size() - 2),
+                                                    bounds.get(bounds.size() - 1));
+    final Recognition context = new Recognition(new Silent(),
+                                                false,
+                                                recognition.grammar(),
+                                                new Deaf(),
+                                                recognition.metrics());
+    contexts.add(context);
+    segments.add(this.pool.submit(() -> context.run(() -> first.concat(new Source(part)))));
+  }
+
+  /**
+   * append the senses of the segment to the result of the previous segments
+   * @param previous the result of the previous segments, ending with the separator
+   * @param next the segment, starting with the separator
+   * @return the result of both segments, or null, if they can not be joined
+   */
+  private Sense appended(final Sense previous,
+                         final Sense next) {
+    if (!(previous instanceof Chain) || !this.separator.getClass()
+                                                       .isInstance(((Chain) previous).current())) {
+      return null;
+    }
+    if (next == this.separator) {
+      return previous;
+    }
+    final Deque<Sense> senses = new ArrayDeque<>();
+    Sense sense = next;
+    while (sense instanceof Chain) {
+      senses.addFirst(((Chain) sense).current());
+      sense = ((Chain) sense).parent();
+    }
+    if (!(sense instanceof One) || ((One) sense).sense() != this.separator) {
+      return null;
+    }
+    Sense ret = previous;
+    for (final Sense appended : senses) {
+      ret = ret.concatDD(appended);
+      if (!(ret instanceof Chain) || ((Chain) ret).current() != appended) {
+        return null;
+      }
+    }
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return this.text.toString();
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import su.izotov.java.objectlr.tokens.Tokens;
+
+/**
+ * The tokens and the interactions of a class of senses, generated at compile time by the
+ * annotation processor of the module ObjectLR-processor. The generated class is named after the
+ * class of senses with the suffix {@code _Senses} (the names of the nested classes are joined by
+ * {@code _}) and is used instead of the reflection, when it is found in the same class loader.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public interface Precompiled {
+
+  /**
+   * no 'concat' method is applicable to the guest, the default interaction is used
+   */
+  int DEFAULT = -1;
+  /**
+   * several 'concat' methods are applicable to the guest, the reflection reports the ambiguity
+   */
+  int AMBIGUOUS = -2;
+
+  /**
+   * @return the tokens, which the reflection discovers for the class
+   * @see Sense#tokens()
+   */
+  Tokens tokens();
+
+  /**
+   * @param guest the class of the second object
+   * @return the number of the 'concat' method applicable to the guest, {@link #DEFAULT} or
+   * {@link #AMBIGUOUS}
+   */
+  int method(Class<?> guest);
+
+  /**
+   * @param method the number of the 'concat' method
+   * @return the class of the parameter of the method
+   */
+  Class<?> parameter(int method);
+
+  /**
+   * interaction of senses by the 'concat' method
+   * @param method the number of the method
+   * @param master the first object
+   * @param guest the second object
+   * @return The result of interaction
+   */
+  Sense concat(int method,
+               Sense master,
+               Sense guest);
+}
@@ -0,0 +1,258 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.function.Supplier;
+import su.izotov.java.objectlr.tokens.Occurrences;
+
+/**
+ * The context of one recognition run. It carries the state of the run, such as the trace of
+ * interactions, through all the interactions of senses. The context is confined to the thread
+ * executing the run, so independent runs on different threads do not affect each other. A thread
+ * outside of any run uses its own default context.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class Recognition {
+
+  /**
+   * name of the system property switching the trace on by default
+   */
+  public static final String TRACE = "su.izotov.java.objectlr.trace";
+  private static final ThreadLocal<Recognition> CURRENT = ThreadLocal.withInitial(Recognition::new);
+  private final Trace trace;
+  private final Failures failures;
+  private final Grammar grammar;
+  private final Listener listener;
+  private final Metrics metrics;
+  /**
+   * the original text of the sources, which occurrences of the tokens are indexed
+   */
+  private CharSequence indexed;
+  private Occurrences occurrences;
+  /**
+   * the number of the recognitions of the source texts, which are not finished
+   */
+  private int depth;
+
+  /**
+   * The context with the trace to the global logger, if the system property
+   * 'su.izotov.java.objectlr.trace' is set to 'true', or without trace otherwise
+   */
+  public Recognition() {
+    this(Boolean.getBoolean(TRACE) ?
+         new Logged() :
+         new Silent());
+  }
+
+  /**
+   * @param trace the trace of the run
+   */
+  public Recognition(final Trace trace) {
+    this(trace,
+         false,
+         Grammar.EMPTY,
+         new Deaf(),
+         new Unmeasured());
+  }
+
+  /**
+   * @param trace the trace of the run
+   * @param memo whether the failed tokens are remembered during the run
+   * @param grammar the compiled grammar
+   * @param listener the listener of the results
+   * @param metrics the metrics of the run
+   */
+  public Recognition(final Trace trace,
+                     final boolean memo,
+                     final Grammar grammar,
+                     final Listener listener,
+                     final Metrics metrics) {
+    this.trace = trace;
+    this.failures = new Failures(memo);
+    this.grammar = grammar;
+    this.listener = listener;
+    this.metrics = metrics;
+  }
+
+  /**
+   * The context, which may remember the failed tokens. A token, which failed after the sense of
+   * some class at some offset of the sentence, is re-recognized as text at once, when it is found
+   * there again. It bounds the repeated re-recognition in the languages, where the failure of the
+   * token depends only on the class of the preceding sense and on the offset.
+   * @param memo whether the failed tokens are remembered during the run
+   * @return the context, which differs from this one only by the memo
+   */
+  public Recognition withMemo(final boolean memo) {
+    return new Recognition(this.trace,
+                           memo,
+                           this.grammar,
+                           this.listener,
+                           this.metrics);
+  }
+
+  /**
+   * The context, which takes the tokens and the interactions from the compiled grammar. The
+   * senses, which the grammar does not know, are discovered by reflection as usual.
+   * @param grammar the compiled grammar
+   * @return the context, which differs from this one only by the grammar
+   */
+  public Recognition withGrammar(final Grammar grammar) {
+    return new Recognition(this.trace,
+                           this.failures.memo(),
+                           grammar,
+                           this.listener,
+                           this.metrics);
+  }
+
+  /**
+   * The context, which reports the results of the recognition to the listener as soon as they are
+   * found
+   * @param listener the listener of the results
+   * @return the context, which differs from this one only by the listener
+   */
+  public Recognition withListener(final Listener listener) {
+    return new Recognition(this.trace,
+                           this.failures.memo(),
+                           this.grammar,
+                           listener,
+                           this.metrics);
+  }
+
+  /**
+   * The context, which counts and times the interactions, the searches of tokens, the failures
+   * and the recognitions of the run
+   * @param metrics the metrics of the run
+   * @return the context, which differs from this one only by the metrics
+   */
+  public Recognition withMetrics(final Metrics metrics) {
+    return new Recognition(this.trace,
+                           this.failures.memo(),
+                           this.grammar,
+                           this.listener,
+                           metrics);
+  }
+
+  /**
+   * @return the context of the run, executed by the current thread
+   */
+  public static Recognition current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * execute the recognition within this context
+   * @param recognition the recognition
+   * @param <R> type of the result
+   * @return the result
+   */
+  public <R> R run(final Supplier<R> recognition) {
+    final Recognition previous = CURRENT.get();
+    if (previous != this) {
+      this.failures.clear();
+      this.indexed = null;
+      this.occurrences = null;
+    }
+    CURRENT.set(this);
+    try {
+      return recognition.get();
+    } finally {
+      CURRENT.set(previous);
+    }
+  }
+
+  /**
+   * @return the trace of the run
+   */
+  public Trace trace() {
+    return this.trace;
+  }
+
+  /**
+   * @return the listener of the results of the run
+   */
+  public Listener listener() {
+    return this.listener;
+  }
+
+  /**
+   * @return the metrics of the run
+   */
+  public Metrics metrics() {
+    return this.metrics;
+  }
+
+  /**
+   * The index of the occurrences of the tokens in the original text of the sources. The index is
+   * kept for the last text while the source text is recognized, is confined to the thread as the
+   * context and is dropped when the outermost recognition of the source text is finished, so the
+   * context of the thread does not keep the text. Outside of the recognition the index is not kept.
+   * @param text the original text
+   * @return the occurrences of the tokens in the text
+   */
+  public Occurrences occurrences(final CharSequence text) {
+    if (this.depth == 0) {
+      return new Occurrences(text);
+    }
+    if (this.indexed != text) {
+      this.indexed = text;
+      this.occurrences = new Occurrences(text);
+    }
+    return this.occurrences;
+  }
+
+  /**
+   * the recognition of the source text begins
+   */
+  void enter() {
+    this.depth++;
+  }
+
+  /**
+   * the recognition of the source text is finished, the index is dropped after the outermost one
+   */
+  void leave() {
+    this.depth--;
+    if (this.depth == 0) {
+      this.indexed = null;
+      this.occurrences = null;
+    }
+  }
+
+  /**
+   * @return the memo of the failed tokens of the run
+   */
+  Failures failures() {
+    return this.failures;
+  }
+
+  /**
+   * @return the compiled grammar of the run
+   */
+  Grammar grammar() {
+    return this.grammar;
+  }
+}
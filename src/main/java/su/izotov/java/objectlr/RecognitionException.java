@@ -39,4 +39,21 @@ public final class RecognitionException
     super();
     this.sense = sense;
   }
+
+  /**
+   * the recognition, which was stopped by the exception
+   * @param cause the exception
+   */
+  public RecognitionException(final RuntimeException cause) {
+    super(cause);
+    this.sense = null;
+  }
+
+  /**
+   * @return the result of the recognition, which is not the expected object, or null if the
+   * recognition was stopped by the exception
+   */
+  public Sense sense() {
+    return this.sense;
+  }
 }
@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.Optional;
+
+/**
+ * The result of the recognition of one sentence of the batch: the recognized object or the error
+ * of the recognition
+ * <p>Created with IntelliJ IDEA.</p>
+ * @param <R> the type of recognizable object
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class Recognized<R extends Sense> {
+
+  private final R object;
+  private final RecognitionException exception;
+
+  /**
+   * @param object the recognized object
+   */
+  public Recognized(final R object) {
+    this(object,
+         null);
+  }
+
+  /**
+   * @param exception the error of the recognition
+   */
+  public Recognized(final RecognitionException exception) {
+    this(null,
+         exception);
+  }
+
+  private Recognized(final R object,
+                     final RecognitionException exception) {
+    this.object = object;
+    this.exception = exception;
+  }
+
+  /**
+   * @return true, if the object is recognized
+   */
+  public boolean recognized() {
+    return this.exception == null;
+  }
+
+  /**
+   * @return the recognized object
+   * @throws RecognitionException if the recognition failed
+   */
+  public R object() throws
+                    RecognitionException {
+    if (this.exception != null) {
+      throw this.exception;
+    }
+    return this.object;
+  }
+
+  /**
+   * @return the error of the recognition, if it failed
+   */
+  public Optional<RecognitionException> failure() {
+    return Optional.ofNullable(this.exception);
+  }
+}
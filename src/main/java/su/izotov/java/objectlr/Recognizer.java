@@ -0,0 +1,238 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.token.Absence;
+import su.izotov.java.objectlr.token.Failed;
+import su.izotov.java.objectlr.token.Token;
+
+/**
+ * The primary recognition of the source text by the master object. The master recognizes the
+ * leftmost token, interacts with the preceding text and the token, and the result recognizes the
+ * rest of the text. When the result recognizes the rest with the default
+ * {@link Sense#concat(Source)}, the next step is made in the same loop instead of a nested call,
+ * so the depth of the stack does not depend on the number of tokens. The trace of interactions
+ * stays the same as if the calls were nested.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+final class Recognizer {
+
+  /**
+   * the class recognizes the source text with the default method
+   */
+  private static final ClassValue<Boolean> DEFAULT = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+      try {
+        return type.getMethod("concat",
+                              Source.class)
+                   .getDeclaringClass()
+                   .equals(Sense.class);
+      } catch (final NoSuchMethodException e) {
+        return false;
+      }
+    }
+  };
+  private final Sense master;
+
+  /**
+   * @param master the master object
+   */
+  Recognizer(final Sense master) {
+    this.master = master;
+  }
+
+  /**
+   * @param sense the sense
+   * @return true, if the sense recognizes the source text with the default method
+   */
+  static boolean stepwise(final Sense sense) {
+    return DEFAULT.get(sense.getClass());
+  }
+
+  /**
+   * recognize the source text
+   * @param source the text
+   * @return recognition result
+   */
+  Sense concat(final Source source) {
+    final Recognition recognition = Recognition.current();
+    recognition.enter();
+    try {
+      return this.recognized(recognition,
+                             source);
+    } finally {
+      recognition.leave();
+    }
+  }
+
+  /**
+   * @param recognition the context of the run
+   * @param source the text
+   * @return recognition result
+   */
+  private Sense recognized(final Recognition recognition,
+                           final Source source) {
+    final Trace trace = recognition.trace();
+    final Failures failures = recognition.failures();
+    final Listener listener = recognition.listener();
+    final Metrics metrics = recognition.metrics();
+    Sense current = this.master;
+    Source rest = source;
+    int offset = failures.start();
+    int nested = 0;
+    Sense ret = null;
+    while (ret == null) {
+      // recognized element
+      final long start = metrics.time(Metrics.Stage.SEARCH);
+      final Token leftMostParsed = current.tokens()
+                                          .leftMostIn(rest);
+      // the text before recognized element
+      final String preceding = leftMostParsed.precedingIn(rest);
+      metrics.search(current.getClass(),
+                     rest.offset(),
+                     leftMostParsed instanceof Absence ?
+                     rest.length() :
+                     preceding.length() + leftMostParsed.length(),
+                     start);
+      final Sense precedingText = new Absence().concatDD(current.textToken(preceding));
+      final Sense restPart = new Absence().concatDD(rest.followingThe(leftMostParsed));
+      if (!preceding.isEmpty()) {
+        listener.onText(preceding);
+      }
+      failures.recognized(rest);
+      final Sense one = current.concatDD(precedingText);
+      Recognizer.reduced(listener,
+                         current,
+                         precedingText,
+                         one);
+      final int position = offset == -1 || leftMostParsed instanceof Absence ?
+                           -1 :
+                           offset + preceding.length();
+      if (failures.failed(Recognizer.last(one),
+                          leftMostParsed,
+                          position)) {
+        current = Recognizer.excluding(one,
+                                       leftMostParsed);
+        metrics.exclusion(Recognizer.depth(current));
+        rest = rest.subSequence(preceding.length(),
+                                rest.length());
+        offset = position;
+        continue;
+      }
+      if (!(leftMostParsed instanceof Absence)) {
+        listener.onToken(leftMostParsed);
+      }
+      final Sense two = one.concatDD(leftMostParsed);
+      Recognizer.reduced(listener,
+                         one,
+                         leftMostParsed,
+                         two);
+      failures.appended(two,
+                        leftMostParsed,
+                        position);
+      if (offset != -1 && restPart instanceof Source) {
+        offset += rest.length() - ((Source) restPart).length();
+      }
+      else {
+        offset = -1;
+      }
+      if (restPart instanceof Source && Recognizer.stepwise(two)) {
+        trace.interaction(two,
+                          restPart,
+                          recognition.grammar()
+                                     .function(two,
+                                               restPart));
+        nested++;
+        current = two;
+        rest = (Source) restPart;
+      }
+      else {
+        failures.at(offset);
+        ret = two.concatDD(restPart);
+      }
+    }
+    for (int level = 0;
+         level < nested;
+         level++) {
+      trace.result(ret);
+    }
+    return ret;
+  }
+
+  /**
+   * report the result of the interaction, if it is the new sense, and not the buffer of the senses
+   * or one of the participants. The results of the interactions with the buffer are reported by
+   * the buffer, when the senses inside it interact.
+   * @param listener the listener of the results
+   * @param master the first participant
+   * @param guest the second participant
+   * @param result the result of the interaction
+   */
+  static void reduced(final Listener listener,
+                      final Sense master,
+                      final Sense guest,
+                      final Sense result) {
+    if (!(master instanceof Buffer) && result != master && result != guest && !(result instanceof Buffer)
+        && !(result instanceof Absence) && !(result instanceof Failed)) {
+      listener.onReduced(result);
+    }
+  }
+
+  /**
+   * @param sense the result of the interaction
+   * @return the sense, which the following token is appended to
+   */
+  private static Sense last(final Sense sense) {
+    return sense instanceof Chain ?
+           ((Chain) sense).current() :
+           sense;
+  }
+
+  /**
+   * @param sense the sense, which recognizes the text without the failed token
+   * @return the number of the excluded tokens
+   */
+  private static int depth(final Sense sense) {
+    return ((Excluded) Recognizer.last(sense)).depth();
+  }
+
+  /**
+   * the same as the re-recognition after the failure of the token
+   * @param sense the sense before the token
+   * @param token the failed token
+   * @return the sense, which recognizes the text without the token
+   */
+  private static Sense excluding(final Sense sense,
+                                 final Token token) {
+    return sense instanceof Chain ?
+           ((Chain) sense).excluding(token) :
+           new Excluded(token,
+                        sense);
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+/**
+ * The metrics, which record the searches of tokens, the resolutions of interactions, the
+ * re-recognitions after the failures, the reductions of chains and the recognitions of sentences
+ * as the events of the flight recorder. The events are recorded on Java 11 and later, on the
+ * earlier versions the metrics do nothing.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class Recorded
+    implements Metrics {
+
+  @Override
+  public long time(final Stage stage) {
+    return 0;
+  }
+
+  @Override
+  public void interaction(final Class<?> master,
+                          final Class<?> guest,
+                          final long start) {
+    // nothing to do
+  }
+
+  @Override
+  public void resolution(final Class<?> master,
+                         final Class<?> guest,
+                         final int offset,
+                         final long start) {
+    // nothing to do
+  }
+
+  @Override
+  public void reduction(final Class<?> master,
+                        final Class<?> guest,
+                        final int depth,
+                        final int offset,
+                        final long start) {
+    // nothing to do
+  }
+
+  @Override
+  public void search(final Class<?> sense,
+                     final int offset,
+                     final int characters,
+                     final long start) {
+    // nothing to do
+  }
+
+  @Override
+  public void failure(final Class<?> sense,
+                      final Class<?> token,
+                      final int offset,
+                      final long start) {
+    // nothing to do
+  }
+
+  @Override
+  public void exclusion(final int depth) {
+    // nothing to do
+  }
+
+  @Override
+  public void discovery(final Class<?> type) {
+    // nothing to do
+  }
+
+  @Override
+  public void recognition(final int characters,
+                          final long start) {
+    // nothing to do
+  }
+}
@@ -23,29 +23,14 @@
  */
 package su.izotov.java.objectlr;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.logging.Logger;
-import org.cactoos.collection.CollectionOf;
-import org.cactoos.collection.Filtered;
-import org.cactoos.collection.Joined;
-import org.cactoos.collection.Mapped;
-import su.izotov.java.ddispatch.methods.MethodAmbiguouslyDefinedException;
-import su.izotov.java.ddispatch.methods.ResultFunction;
+import java.util.function.BiFunction;
 import su.izotov.java.objectlr.print.Cell;
-import su.izotov.java.objectlr.print.CellOf;
-import su.izotov.java.objectlr.print.Spaces;
 import su.izotov.java.objectlr.print.Visual;
 import su.izotov.java.objectlr.text.Source;
 import su.izotov.java.objectlr.text.Unrecognized;
 import su.izotov.java.objectlr.token.Absence;
 import su.izotov.java.objectlr.token.Failed;
-import su.izotov.java.objectlr.token.Token;
 import su.izotov.java.objectlr.tokens.Tokens;
-import su.izotov.java.objectlr.tokens.TokensOf;
 
 /**
  * the recognized sense object
@@ -54,18 +39,6 @@ import su.izotov.java.objectlr.tokens.TokensOf;
 public interface Sense
     extends Visual {
 
-  int[] logOffset = { 0 };
-  Cell[] logBuffer = { new CellOf(""),
-                       new CellOf("") };
-
-  static void flushLog() {
-    logBuffer[0] = logBuffer[0].addBottom(logBuffer[1]);
-    Logger.getGlobal()
-          .info(logBuffer[0]::toSource);
-    logBuffer[0] = new CellOf("");
-    logBuffer[1] = new CellOf("");
-  }
-
   default Sense concat(final Absence absence) {
     return this;
   }
@@ -84,45 +57,14 @@ public interface Sense
    * Token interface.</p>
    * <p> - only classes that have a default constructor are left in this list.</p>
    * <p> - their instances are added to the list of understood tokens.</p>
+   * <p>The list is discovered once per class and shared by all its instances, or is taken from
+   * the {@link Grammar} of the recognition.</p>
    * @return tokens
    */
   default Tokens tokens() {
-    final Collection<Method> allMethods = new CollectionOf<>(this.getClass()
-                                                                 .getMethods());
-    final Collection<Method> concatMethods = new Filtered<>(method -> "concat".equals(method.getName()) && method.getParameterTypes().length == 1,
-                                                            allMethods);
-    Collection<Class> tokenClasses = new LinkedList<>();
-    Collection<Class> parameterClasses = new Mapped<>(method -> method.getParameterTypes()[0],
-                                                      concatMethods);
-    final Collection<Class> usedClasses = new HashSet<>();
-    do {
-      final Collection<Constructor> constructors = new Joined<>(new Mapped<>(clazz1 -> new CollectionOf<>(clazz1.getConstructors()),
-                                                                             parameterClasses));
-      Collection<Class> firstParamCandidates = new Mapped<>(constructor -> constructor.getParameterTypes()[0],
-                                                            new Filtered<>(constructor1 -> constructor1.getParameterTypes().length > 0 && !String.class.isAssignableFrom(constructor1.getParameterTypes()[0]),
-                                                                           constructors));
-      Collection<Class> secondParamCandidates = new Mapped<>(constructor -> constructor.getParameterTypes()[1],
-                                                             new Filtered<>(constructor1 -> constructor1.getParameterTypes().length > 1 && String.class.isAssignableFrom(constructor1.getParameterTypes()[0]),
-                                                                            constructors));
-      final Joined<Class> candidates = new Joined<Class>(firstParamCandidates,
-                                                         secondParamCandidates);
-      tokenClasses = new Joined<Class>(tokenClasses,
-                                       new Filtered<>(clazz -> Token.class.isAssignableFrom(clazz),
-                                                      candidates));
-      parameterClasses = new Filtered<>(clazz -> !usedClasses.contains(clazz),
-                                        new Filtered<>(clazz -> !Token.class.isAssignableFrom(clazz),
-                                                       candidates));
-      usedClasses.addAll(parameterClasses);
-    } while (!parameterClasses.isEmpty())
-        ;
-    final Iterable<Iterable<Constructor>> tokenConstructorSets = new Mapped<>(clazz -> new CollectionOf<>(clazz.getConstructors()),
-                                                                              tokenClasses);
-    final Collection<Constructor> tokenConstructors = new Joined<>(tokenConstructorSets);
-    final Collection<Constructor> tokenDefaultConstructors = new Filtered<>(constructor -> constructor.getParameterTypes().length == 0,
-                                                                            tokenConstructors);
-    final Collection<Tokens> tokens = new Mapped<>(constructor -> (Tokens) constructor.newInstance(),
-                                                   tokenDefaultConstructors);
-    return new TokensOf(tokens);
+    return Recognition.current()
+                      .grammar()
+                      .tokens(this.getClass());
   }
 
   /**
@@ -143,53 +85,34 @@ public interface Sense
    * @return The result of interaction
    */
   default Sense concatDD(final Sense sense) {
-    if (logOffset[0] == 0) {
-      logBuffer[0] = new CellOf("");
-    }
-    logBottom(this.toVisual()
-                  .addRight(" | ")
-                  .addRight(sense.toVisual()));
-    Sense ret;
-    try {
-      final ResultFunction<Sense, Sense, Sense> resultFunction = new Concat(this,
-                                                                            sense,
-                                                                            Chain::new).resultFunction();
-      logRight(new CellOf(" - " + resultFunction.toString()));
-      logOffset[0]++;
-      ret = resultFunction.apply(this,
-                                 sense);
-    } catch (final MethodAmbiguouslyDefinedException e) {
-      throw new RuntimeException(e);
-    }
-    logOffset[0]--;
-    logBottom(new CellOf("VVVVV").addBottom(ret.toVisual())
-                                 .addBottom(new CellOf("-----")));
-    if (logOffset[0] == 0) {
-      flushLog();
-    }
+    final Recognition recognition = Recognition.current();
+    final BiFunction<Sense, Sense, Sense> resultFunction = recognition.grammar()
+                                                                      .function(this,
+                                                                                sense);
+    final Trace trace = recognition.trace();
+    final Metrics metrics = recognition.metrics();
+    final long start = metrics.time(Metrics.Stage.INTERACTION);
+    trace.interaction(this,
+                      sense,
+                      resultFunction);
+    final Sense ret = resultFunction.apply(this,
+                                           sense);
+    trace.result(ret);
+    metrics.interaction(this.getClass(),
+                        sense.getClass(),
+                        start);
     return ret;
   }
 
-  static void logBottom(Cell content) {
-    logBuffer[0] = logBuffer[0].addBottom(logBuffer[1]);
-    logBuffer[1] = new Spaces(logOffset[0]).addRight(content);
-  }
-
-  static void logRight(Cell content) {
-    logBuffer[1] = logBuffer[1].addRight(content);
-  }
-
+  /**
+   * primary recognition of the source text: the leftmost token is recognized, this object
+   * interacts with the preceding text and the token, and the result recognizes the rest of the
+   * text
+   * @param source the text
+   * @return recognition result
+   */
   default Sense concat(final Source source) {
-    // recognized element
-    final Token leftMostParsed = this.tokens()
-                                     .leftMostIn(source.toSource());
-    // the text before recognized element
-    final Sense precedingText = new Absence().concatDD(textToken(leftMostParsed.precedingIn(source)));
-    Sense restPart = new Absence().concatDD(source.followingThe(leftMostParsed));
-    Sense one = this.concatDD(precedingText);
-    Sense two = one.concatDD(leftMostParsed);
-    Sense three = two.concatDD(restPart);
-    return three;
+    return new Recognizer(this).concat(source);
   }
 
   /**
@@ -198,8 +121,24 @@ public interface Sense
    * @return recognition result
    */
   default Sense concat(final Failed failed) {
-    return new Excluded(failed.token(),
-                        this).concatDD(new Source(failed.toSource()));
+    final Recognition recognition = Recognition.current();
+    final Metrics metrics = recognition.metrics();
+    final long start = metrics.time(Metrics.Stage.FAILURE);
+    recognition.failures()
+               .failure(this,
+                        failed.token());
+    final Excluded excluded = new Excluded(failed.token(),
+                                           this);
+    metrics.exclusion(excluded.depth());
+    final Sense ret = excluded.concatDD(recognition.failures()
+                                                   .source(failed));
+    metrics.failure(this.getClass(),
+                    failed.token()
+                          .getClass(),
+                    recognition.failures()
+                               .position(),
+                    start);
+    return ret;
   }
 
   @Override
@@ -214,4 +153,13 @@ public interface Sense
    * @return Source text of this
    */
   String toSource();
+
+  /**
+   * appends the source text of this to the builder, the composite senses append their parts
+   * without intermediate strings
+   * @param builder the builder
+   */
+  default void appendSource(final StringBuilder builder) {
+    builder.append(this.toSource());
+  }
 }
@@ -23,7 +23,10 @@
  */
 package su.izotov.java.objectlr;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.logging.Logger;
+import su.izotov.java.objectlr.text.MappedText;
 import su.izotov.java.objectlr.text.Source;
 import su.izotov.java.objectlr.token.EOF;
 
@@ -38,24 +41,68 @@ import su.izotov.java.objectlr.token.EOF;
  */
 public class Sentence<T extends Sense, R extends Sense> {
 
-  private final String text;
+  private final CharSequence text;
   private final T master;
 
   protected Sentence(final String text,
                      final T master) {
+    this((CharSequence) text,
+         master);
+  }
+
+  protected Sentence(final CharSequence text,
+                     final T master) {
     this.text = text;
     this.master = master;
   }
 
+  /**
+   * the sentence of the UTF-8 file, mapped into memory and decoded by segments while recognized
+   * @param path the file
+   * @param master the language
+   * @throws IOException if the file can not be mapped
+   */
+  protected Sentence(final Path path,
+                     final T master) throws
+                                     IOException {
+    this(new MappedText(path),
+         master);
+  }
+
   /**
    * recognize the text and convert it into Object
    * @return an object
    * @throws RecognitionException if recognition process fail
    */
-  @SuppressWarnings("unchecked")
   public final R toObject() throws
                             RecognitionException {
-    final Sense ret = this.master.concat(new Source(this.text)).concatDD(new EOF());
+    return this.toObject(new Recognition());
+  }
+
+  /**
+   * recognize the text within the given context and convert it into Object
+   * @param recognition the context of the recognition run
+   * @return an object
+   * @throws RecognitionException if recognition process fail
+   */
+  @SuppressWarnings("unchecked")
+  public final R toObject(final Recognition recognition) throws
+                                                         RecognitionException {
+    final long start = recognition.metrics()
+                                  .time(Metrics.Stage.RECOGNITION);
+    final Sense ret;
+    try {
+      ret = recognition.run(() -> {
+        recognition.failures()
+                   .at(0);
+        return this.master.concat(new Source(this.text))
+                          .concatDD(new EOF());
+      });
+    } finally {
+      recognition.metrics()
+                 .recognition(this.text.length(),
+                              start);
+    }
     try {
       return (R) ret;
     } catch (final RuntimeException ignored) {
@@ -68,8 +115,22 @@ public class Sentence<T extends Sense, R extends Sense> {
     }
   }
 
+  /**
+   * @return the text of the sentence
+   */
+  CharSequence text() {
+    return this.text;
+  }
+
+  /**
+   * @return the master object
+   */
+  T master() {
+    return this.master;
+  }
+
   @Override
   public String toString() {
-    return text;
+    return this.text.toString();
   }
 }
@@ -0,0 +1,290 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.logging.Logger;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.token.Absence;
+import su.izotov.java.objectlr.token.EOF;
+import su.izotov.java.objectlr.token.Token;
+import su.izotov.java.objectlr.tokens.Tokens;
+
+/**
+ * The sentence on the certain language, read from the stream. The text is read by chunks, and
+ * the master object recognizes it step by step, as soon as the leftmost token can not change with
+ * the following characters. Only the tail, which may still contain the beginning of a token, is
+ * held back until the following chunk or the end of the stream. The result is the same as the
+ * result of the {@link Sentence} with the whole text.
+ * <p>The text is recognized by steps while the recognizing objects use the default
+ * {@link Sense#concat(Source)} and the token sets, which know the length of their longest token,
+ * of tokens with plain literals. Otherwise, the rest of the stream is read entirely before the recognition.</p>
+ * <p>Created with IntelliJ IDEA.</p>
+ * @param <T> The type of the master object that will understand the sentence text
+ * @param <R> the type of recognizable object
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public class Streamed<T extends Sense, R extends Sense> {
+
+  /**
+   * the token class does not override the methods taking the text around it
+   */
+  private static final ClassValue<Boolean> PLAIN = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+      try {
+        return type.getMethod("precedingIn",
+                              Source.class)
+                   .getDeclaringClass()
+                   .equals(Token.class) && type.getMethod("followingIn",
+                                                          Source.class)
+                                               .getDeclaringClass()
+                                               .equals(Token.class);
+      } catch (final NoSuchMethodException e) {
+        return false;
+      }
+    }
+  };
+  private final Reader reader;
+  private final T master;
+  private final int chunk;
+
+  protected Streamed(final ReadableByteChannel channel,
+                     final Charset charset,
+                     final T master) {
+    this(Channels.newReader(channel,
+                            charset.newDecoder(),
+                            -1),
+         master);
+  }
+
+  protected Streamed(final Reader reader,
+                     final T master) {
+    this(reader,
+         master,
+         8192);
+  }
+
+  /**
+   * @param reader the text
+   * @param master the master object
+   * @param chunk number of characters read at once
+   */
+  protected Streamed(final Reader reader,
+                     final T master,
+                     final int chunk) {
+    this.reader = reader;
+    this.master = master;
+    this.chunk = chunk;
+  }
+
+  /**
+   * recognize the text and convert it into Object
+   * @return an object
+   * @throws RecognitionException if recognition process fail
+   * @throws IOException if the text can not be read
+   */
+  public final R toObject() throws
+                            RecognitionException,
+                            IOException {
+    return this.toObject(new Recognition());
+  }
+
+  /**
+   * recognize the text within the given context and convert it into Object
+   * @param recognition the context of the recognition run
+   * @return an object
+   * @throws RecognitionException if recognition process fail
+   * @throws IOException if the text can not be read
+   */
+  @SuppressWarnings("unchecked")
+  public final R toObject(final Recognition recognition) throws
+                                                         RecognitionException,
+                                                         IOException {
+    final long start = recognition.metrics()
+                                  .time(Metrics.Stage.RECOGNITION);
+    final Sense ret;
+    try {
+      ret = recognition.run(() -> this.recognized()
+                                      .concatDD(new EOF()));
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      recognition.metrics()
+                 .recognition(-1,
+                              start);
+    }
+    try {
+      return (R) ret;
+    } catch (final RuntimeException ignored) {
+      Logger.getGlobal()
+            .info("Unrecognizable text!");
+      Logger.getGlobal()
+            .info(ret.toVisual()
+                     .toSource());
+      throw new RecognitionException(ret);
+    }
+  }
+
+  private Sense recognized() {
+    final Recognition recognition = Recognition.current();
+    final Trace trace = recognition.trace();
+    final Listener listener = recognition.listener();
+    final StringBuilder pending = new StringBuilder(this.chunk * 2);
+    final char[] buffer = new char[this.chunk];
+    Sense current = this.master;
+    Sense deferred = null;
+    int nested = 0;
+    boolean eof = false;
+    while (!eof) {
+      int wanted = Integer.max(this.chunk,
+                               pending.length());
+      while (wanted > 0 && !eof) {
+        final int read = this.read(buffer,
+                                   Integer.min(wanted,
+                                               buffer.length));
+        if (read == -1) {
+          eof = true;
+        }
+        else {
+          pending.append(buffer,
+                         0,
+                         read);
+          wanted -= read;
+        }
+      }
+      if (!eof && deferred == null && Recognizer.stepwise(current)) {
+        Source rest = new Source(pending.toString());
+        Token token = this.safe(current,
+                                rest);
+        while (token != null) {
+          final String preceding = token.precedingIn(rest);
+          final Sense precedingText = new Absence().concatDD(current.textToken(preceding));
+          final Sense restPart = new Absence().concatDD(rest.followingThe(token));
+          if (!preceding.isEmpty()) {
+            listener.onText(preceding);
+          }
+          final Sense one = current.concatDD(precedingText);
+          Recognizer.reduced(listener,
+                             current,
+                             precedingText,
+                             one);
+          listener.onToken(token);
+          final Sense two = one.concatDD(token);
+          Recognizer.reduced(listener,
+                             one,
+                             token,
+                             two);
+          rest = (Source) restPart;
+          if (Recognizer.stepwise(two)) {
+            trace.interaction(two,
+                              rest,
+                              recognition.grammar()
+                                         .function(two,
+                                                   rest));
+            nested++;
+            current = two;
+            token = this.safe(current,
+                              rest);
+          }
+          else {
+            deferred = two;
+            token = null;
+          }
+        }
+        pending.setLength(0);
+        pending.append(rest);
+      }
+    }
+    final Sense ret;
+    if (deferred == null) {
+      ret = current.concat(new Source(pending.toString()));
+    }
+    else {
+      ret = deferred.concatDD(new Absence().concatDD(new Source(pending.toString())));
+    }
+    for (int level = 0;
+         level < nested;
+         level++) {
+      trace.result(ret);
+    }
+    return ret;
+  }
+
+  /**
+   * The leftmost token in the text, which will stay the leftmost one and will be followed by a
+   * text, whatever characters are read later
+   * @param sense the recognizing object
+   * @param text the text read
+   * @return the token or null, if more characters are needed
+   */
+  private Token safe(final Sense sense,
+                     final Source text) {
+    final Tokens tokens = sense.tokens();
+    Token ret = null;
+    final int longest = tokens.longest();
+    if (longest > 0) {
+      final Metrics metrics = Recognition.current()
+                                         .metrics();
+      final long start = metrics.time(Metrics.Stage.SEARCH);
+      final Token token = tokens.leftMostIn(text);
+      metrics.search(sense.getClass(),
+                     -1,
+                     token instanceof Absence ?
+                     text.length() :
+                     token.precedingIn(text)
+                          .length() + token.length(),
+                     start);
+      if (!(token instanceof Absence) && PLAIN.get(token.getClass())) {
+        final int position = text.positionOf(token.toSource());
+        if (position + longest <= text.length() && position + token.length() < text.length()) {
+          ret = token;
+        }
+      }
+    }
+    return ret;
+  }
+
+  private int read(final char[] buffer,
+                   final int length) {
+    try {
+      int ret = 0;
+      while (ret == 0) {
+        ret = this.reader.read(buffer,
+                               0,
+                               length);
+      }
+      return ret;
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -47,65 +47,14 @@ final class Horizontal
 
   @Override
   public String toSource() {
-    final String leftCell = this.left.toSource();
-    final String rightCell = this.right.toSource();
-    String ret;
-    if (leftCell.isEmpty()) {
-      ret = rightCell;
-    }
-    else if (rightCell.isEmpty()) {
-      ret = leftCell;
-    }
-    else {
-      final String[] leftStrings = leftCell.split("\n",
-                                          -1);
-      final String[] rightStrings = rightCell.split("\n",
-                                           -1);
-      int maximumLength = 0;
-      for (final String leftString : leftStrings) {
-        maximumLength = Integer.max(maximumLength,
-                                    leftString.length());
-      }
-      final int minCellHigh = Integer.min(leftStrings.length,
-                                           rightStrings.length);
-      final StringBuilder stringBuilder = new StringBuilder(2000);
-      while (stringBuilder.length() < maximumLength) {
-        stringBuilder.append("                                                                                               ");
-      }
-      final String spaces = stringBuilder.toString();
-      ret = "";
-      for (int leftStringNumber = 0;
-           leftStringNumber < minCellHigh;
-           leftStringNumber++) {
-        if (leftStringNumber != 0 && leftStringNumber < minCellHigh) {
-          ret += "\n";
-        }
-        ret += (leftStrings[leftStringNumber] + spaces).substring(0,
-                                            maximumLength) + ' ' + rightStrings[leftStringNumber];
-      }
-      if (minCellHigh < rightStrings.length) {
-        ret += "\n";
-        for (int rightStringNumber = minCellHigh;
-             rightStringNumber < rightStrings.length;
-             rightStringNumber++) {
-          if (rightStringNumber != minCellHigh && rightStringNumber < rightStrings.length) {
-            ret += "\n";
-          }
-          ret += spaces.substring(0,
-                                  maximumLength) + ' ' + rightStrings[rightStringNumber];
-        }
-      }
-      else {
-        for (int stringNumber = minCellHigh;
-             stringNumber < leftStrings.length;
-             stringNumber++) {
-          if (stringNumber < leftStrings.length) {
-            ret += "\n";
-          }
-          ret += leftStrings[stringNumber];
-        }
-      }
-    }
-    return ret;
+    return new Layout(this).toSource();
+  }
+
+  Cell left() {
+    return this.left;
+  }
+
+  Cell right() {
+    return this.right;
   }
 }
@@ -0,0 +1,305 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.print;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * The layout of the cells. Every cell of the tree is measured once, the lines of the nested cells
+ * are not copied but referenced by the lines of the enclosing ones, and all the lines are written
+ * into one builder at the end. The tree is walked in loops, so its depth is not limited by the
+ * stack.
+ * @author Vladimir Izotov
+ */
+final class Layout {
+
+  private final Cell cell;
+
+  Layout(final Cell cell) {
+    this.cell = cell;
+  }
+
+  /**
+   * @return the text of the cell
+   */
+  String toSource() {
+    final StringBuilder ret = new StringBuilder();
+    this.appendTo(ret);
+    return ret.toString();
+  }
+
+  /**
+   * writes the lines of the cell into the builder
+   * @param builder the builder
+   */
+  void appendTo(final StringBuilder builder) {
+    final Deque<Line> pending = new ArrayDeque<>();
+    boolean first = true;
+    for (final Line line : this.block().lines) {
+      if (!first) {
+        builder.append('\n');
+      }
+      first = false;
+      pending.push(line);
+      while (!pending.isEmpty()) {
+        pending.pop()
+               .write(pending,
+                      builder);
+      }
+    }
+  }
+
+  private Block block() {
+    final Deque<Object> tasks = new ArrayDeque<>();
+    final Deque<Block> blocks = new ArrayDeque<>();
+    tasks.push(this.cell);
+    while (!tasks.isEmpty()) {
+      final Object task = tasks.pop();
+      if (task instanceof Horizontal) {
+        tasks.push(Join.HORIZONTAL);
+        tasks.push(((Horizontal) task).right());
+        tasks.push(((Horizontal) task).left());
+      }
+      else if (task instanceof Vertical) {
+        tasks.push(Join.VERTICAL);
+        tasks.push(((Vertical) task).bottom());
+        tasks.push(((Vertical) task).top());
+      }
+      else if (task instanceof Join) {
+        final Block second = blocks.pop();
+        final Block first = blocks.pop();
+        blocks.push(((Join) task).join(first,
+                                       second));
+      }
+      else {
+        blocks.push(new Block(((Cell) task).toSource()));
+      }
+    }
+    return blocks.pop();
+  }
+
+  private enum Join {
+    /**
+     * the lines of the right block follow the lines of the left one, the left lines are padded to
+     * the width of the left block
+     */
+    HORIZONTAL {
+      @Override
+      Block join(final Block left,
+                 final Block right) {
+        final Block ret;
+        if (left.isEmpty()) {
+          ret = right;
+        }
+        else if (right.isEmpty()) {
+          ret = left;
+        }
+        else {
+          final Deque<Line> lines = new ArrayDeque<>(Integer.max(left.lines.size(),
+                                                                 right.lines.size()));
+          final Iterator<Line> lefts = left.lines.iterator();
+          final Iterator<Line> rights = right.lines.iterator();
+          while (lefts.hasNext() && rights.hasNext()) {
+            lines.add(new Row(lefts.next(),
+                              left.width,
+                              rights.next()));
+          }
+          while (rights.hasNext()) {
+            lines.add(new Row(new Text(""),
+                              left.width,
+                              rights.next()));
+          }
+          while (lefts.hasNext()) {
+            lines.add(lefts.next());
+          }
+          ret = new Block(lines,
+                          left.width + 1 + right.width);
+        }
+        return ret;
+      }
+    },
+    /**
+     * the lines of the bottom block follow the lines of the top one
+     */
+    VERTICAL {
+      @Override
+      Block join(final Block top,
+                 final Block bottom) {
+        final Deque<Line> lines;
+        if (top.lines.size() >= bottom.lines.size()) {
+          lines = top.lines;
+          lines.addAll(bottom.lines);
+        }
+        else {
+          lines = bottom.lines;
+          final Iterator<Line> tops = top.lines.descendingIterator();
+          while (tops.hasNext()) {
+            lines.addFirst(tops.next());
+          }
+        }
+        return new Block(lines,
+                         Integer.max(top.width,
+                                     bottom.width));
+      }
+    };
+
+    abstract Block join(Block first,
+                        Block second);
+  }
+
+  /**
+   * the measured lines of the cell
+   */
+  private static final class Block {
+
+    private final Deque<Line> lines;
+    private final int width;
+
+    Block(final String text) {
+      this.lines = new ArrayDeque<>();
+      int width = 0;
+      for (final String line : text.split("\n",
+                                          -1)) {
+        this.lines.add(new Text(line));
+        width = Integer.max(width,
+                            line.length());
+      }
+      this.width = width;
+    }
+
+    Block(final Deque<Line> lines,
+          final int width) {
+      this.lines = lines;
+      this.width = width;
+    }
+
+    boolean isEmpty() {
+      return this.width == 0 && this.lines.size() == 1;
+    }
+  }
+
+  /**
+   * the line of the layout
+   */
+  private interface Line {
+
+    int length();
+
+    /**
+     * writes the line, or pushes its parts to be written in their order
+     * @param pending the parts to write
+     * @param builder the builder
+     */
+    void write(Deque<Line> pending,
+               StringBuilder builder);
+  }
+
+  /**
+   * the line of the leaf cell
+   */
+  private static final class Text
+      implements Line {
+
+    private final String text;
+
+    Text(final String text) {
+      this.text = text;
+    }
+
+    @Override
+    public int length() {
+      return this.text.length();
+    }
+
+    @Override
+    public void write(final Deque<Line> pending,
+                      final StringBuilder builder) {
+      builder.append(this.text);
+    }
+  }
+
+  /**
+   * the spaces padding the left line
+   */
+  private static final class Padding
+      implements Line {
+
+    private final int length;
+
+    Padding(final int length) {
+      this.length = length;
+    }
+
+    @Override
+    public int length() {
+      return this.length;
+    }
+
+    @Override
+    public void write(final Deque<Line> pending,
+                      final StringBuilder builder) {
+      for (int index = 0;
+           index < this.length;
+           index++) {
+        builder.append(' ');
+      }
+    }
+  }
+
+  /**
+   * the left line, padded to the width of the left block, and the right line
+   */
+  private static final class Row
+      implements Line {
+
+    private final Line left;
+    private final int width;
+    private final Line right;
+    private final int length;
+
+    Row(final Line left,
+        final int width,
+        final Line right) {
+      this.left = left;
+      this.width = width;
+      this.right = right;
+      this.length = width + 1 + right.length();
+    }
+
+    @Override
+    public int length() {
+      return this.length;
+    }
+
+    @Override
+    public void write(final Deque<Line> pending,
+                      final StringBuilder builder) {
+      pending.push(this.right);
+      pending.push(new Padding(this.width - this.left.length() + 1));
+      pending.push(this.left);
+    }
+  }
+}
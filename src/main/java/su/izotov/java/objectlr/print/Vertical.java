@@ -41,6 +41,14 @@ final class Vertical
 
   @Override
   public String toSource() {
-    return this.top.toSource() + '\n' + this.bottom.toSource();
+    return new Layout(this).toSource();
+  }
+
+  Cell top() {
+    return this.top;
+  }
+
+  Cell bottom() {
+    return this.bottom;
   }
 }
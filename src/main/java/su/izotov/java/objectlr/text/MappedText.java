@@ -0,0 +1,210 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.text;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The text of the UTF-8 file, mapped into memory. The file is split into segments, and only the
+ * segment containing the requested characters is decoded and held in the heap, so the parts of the
+ * file, which are only scanned for tokens, are never copied as a whole.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class MappedText
+    implements CharSequence {
+
+  private final MappedByteBuffer bytes;
+  /**
+   * byte offsets of the segments, with the end of the file at the end
+   */
+  private final int[] boundaries;
+  /**
+   * char offsets of the segments, with the length of the text at the end
+   */
+  private final int[] offsets;
+  private final int segment;
+  private volatile Decoded decoded;
+
+  /**
+   * @param path the file
+   * @throws IOException if the file can not be mapped
+   */
+  public MappedText(final Path path) throws
+                                     IOException {
+    this(path,
+         1 << 16);
+  }
+
+  /**
+   * @param path the file
+   * @param segment size of the decoded segment in bytes
+   * @throws IOException if the file can not be mapped
+   */
+  public MappedText(final Path path,
+                    final int segment) throws
+                                       IOException {
+    try (final FileChannel channel = FileChannel.open(path,
+                                                      StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("The file " + path + " is too large to be mapped");
+      }
+      this.bytes = channel.map(FileChannel.MapMode.READ_ONLY,
+                               0,
+                               channel.size());
+    }
+    this.segment = segment;
+    final int size = this.bytes.limit();
+    int[] starts = new int[size / segment + 2];
+    int count = 0;
+    int start = 0;
+    while (start < size) {
+      starts[count++] = start;
+      start = Integer.min(size,
+                          start + segment);
+      while (start < size && (this.bytes.get(start) & 0xC0) == 0x80) {
+        start++;
+      }
+    }
+    starts[count] = size;
+    this.boundaries = Arrays.copyOf(starts,
+                                    count + 1);
+    this.offsets = new int[count + 1];
+    final CharBuffer chars = CharBuffer.allocate(this.capacity());
+    for (int index = 0;
+         index < count;
+         index++) {
+      chars.clear();
+      this.decode(index,
+                  chars);
+      this.offsets[index + 1] = this.offsets[index] + chars.position();
+    }
+  }
+
+  @Override
+  public int length() {
+    return this.offsets[this.offsets.length - 1];
+  }
+
+  @Override
+  public char charAt(final int index) {
+    if (index < 0 || index >= this.length()) {
+      throw new IndexOutOfBoundsException("Index " + index + " is out of the text");
+    }
+    Decoded current = this.decoded;
+    if (current == null || index < current.start || index >= current.start + current.chars.length) {
+      current = this.decoded(index);
+      this.decoded = current;
+    }
+    return current.chars[index - current.start];
+  }
+
+  @Override
+  public CharSequence subSequence(final int start,
+                                  final int end) {
+    if (start < 0 || end > this.length() || start > end) {
+      throw new IndexOutOfBoundsException("Range " + start + ".." + end + " is out of the text");
+    }
+    final StringBuilder ret = new StringBuilder(end - start);
+    for (int index = start;
+         index < end;
+         index++) {
+      ret.append(this.charAt(index));
+    }
+    return ret.toString();
+  }
+
+  @Override
+  public String toString() {
+    return this.subSequence(0,
+                            this.length())
+               .toString();
+  }
+
+  private Decoded decoded(final int index) {
+    int found = Arrays.binarySearch(this.offsets,
+                                    index);
+    if (found < 0) {
+      found = -found - 2;
+    }
+    while (this.offsets[found + 1] == this.offsets[found]) {
+      found++;
+    }
+    final CharBuffer chars = CharBuffer.allocate(this.capacity());
+    this.decode(found,
+                chars);
+    return new Decoded(this.offsets[found],
+                       Arrays.copyOf(chars.array(),
+                                     chars.position()));
+  }
+
+  private void decode(final int index,
+                      final CharBuffer chars) {
+    final ByteBuffer source = this.bytes.duplicate();
+    source.limit(this.boundaries[index + 1]);
+    source.position(this.boundaries[index]);
+    final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                                                         .onMalformedInput(CodingErrorAction.REPLACE)
+                                                         .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    final CoderResult result = decoder.decode(source,
+                                              chars,
+                                              true);
+    if (result.isOverflow() || decoder.flush(chars)
+                                      .isOverflow()) {
+      throw new IllegalStateException("The segment is decoded to more characters than expected");
+    }
+  }
+
+  private int capacity() {
+    return this.segment + 4;
+  }
+
+  /**
+   * the decoded segment
+   */
+  private static final class Decoded {
+
+    private final int start;
+    private final char[] chars;
+
+    Decoded(final int start,
+            final char[] chars) {
+      this.start = start;
+      this.chars = chars;
+    }
+  }
+}
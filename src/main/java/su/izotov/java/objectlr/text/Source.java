@@ -23,30 +23,79 @@
  */
 package su.izotov.java.objectlr.text;
 
+import su.izotov.java.objectlr.Recognition;
 import su.izotov.java.objectlr.Sense;
 import su.izotov.java.objectlr.token.Token;
+import su.izotov.java.objectlr.tokens.Occurrences;
 
 /**
- * Source text for the recognition
+ * Source text for the recognition. The source is a window over the original text, so the
+ * searching in it and taking the following text move the bounds of the window without copying
+ * the characters.
  * @author Vladimir Izotov
  */
 public final class Source
-    implements Sense {
+    implements Sense,
+               CharSequence {
 
-  private final String text;
+  private final CharSequence text;
+  private final int start;
+  private final int end;
 
   public Source(final String text) {
+    this((CharSequence) text);
+  }
+
+  /**
+   * @param text the whole text
+   */
+  public Source(final CharSequence text) {
+    this(text,
+         0,
+         text.length());
+  }
+
+  /**
+   * @param text the original text
+   * @param start beginning of the window, inclusive
+   * @param end end of the window, exclusive
+   */
+  public Source(final CharSequence text,
+                final int start,
+                final int end) {
+    if (start < 0 || end > text.length() || start > end) {
+      throw new IndexOutOfBoundsException("Window " + start + ".." + end + " is out of the text");
+    }
     this.text = text;
+    this.start = start;
+    this.end = end;
   }
 
   @Override
   public Source concat(final Source source) {
-    return new Source(this.text + source.toSource());
+    return new Source(new StringBuilder(this.length() + source.length()).append(this)
+                                                                        .append(source)
+                                                                        .toString());
   }
 
   @Override
   public String toSource() {
-    return this.text;
+    final String ret;
+    if (this.start == 0 && this.end == this.text.length() && this.text instanceof String) {
+      ret = (String) this.text;
+    } else {
+      ret = this.text.subSequence(this.start,
+                                  this.end)
+                     .toString();
+    }
+    return ret;
+  }
+
+  @Override
+  public void appendSource(final StringBuilder builder) {
+    builder.append(this.text,
+                   this.start,
+                   this.end);
   }
 
   @Override
@@ -54,18 +103,110 @@ public final class Source
     return this.toSource();
   }
 
+  /**
+   * @return beginning of the window in the original text
+   */
+  public int offset() {
+    return this.start;
+  }
+
+  /**
+   * @return the occurrences of the tokens in the original text, shared by all its windows within
+   * the current recognition
+   */
+  public Occurrences occurrences() {
+    return Recognition.current()
+                      .occurrences(this.text);
+  }
+
+  @Override
+  public int length() {
+    return this.end - this.start;
+  }
+
+  @Override
+  public char charAt(final int index) {
+    if (index < 0 || index >= this.length()) {
+      throw new IndexOutOfBoundsException("Index " + index + " is out of the window");
+    }
+    return this.text.charAt(this.start + index);
+  }
+
+  @Override
+  public Source subSequence(final int start,
+                            final int end) {
+    if (start < 0 || end > this.length() || start > end) {
+      throw new IndexOutOfBoundsException("Window " + start + ".." + end + " is out of the window");
+    }
+    return new Source(this.text,
+                      this.start + start,
+                      this.start + end);
+  }
+
+  /**
+   * The text as the window of the original text, if the original text contains it the given number
+   * of characters before this window, or the new source of the text otherwise
+   * @param text the text
+   * @param before number of characters before the beginning of this window, where the text starts
+   * @return the source of the text
+   */
+  public Source windowOf(final String text,
+                         final int before) {
+    final int from = this.start - before;
+    boolean same = from >= 0 && from + text.length() <= this.text.length();
+    for (int index = 0;
+         index < text.length() && same;
+         index++) {
+      same = this.text.charAt(from + index) == text.charAt(index);
+    }
+    return same ?
+           new Source(this.text,
+                      from,
+                      from + text.length()) :
+           new Source(text);
+  }
+
+  /**
+   * first position of the other text in this window
+   * @param text other text
+   * @return position, relative to the beginning of the window, or -1 if the text is absent
+   */
+  public int positionOf(final String text) {
+    int ret = -1;
+    if (this.text instanceof String && this.end == this.text.length()) {
+      final int found = ((String) this.text).indexOf(text,
+                                                     this.start);
+      if (found != -1) {
+        ret = found - this.start;
+      }
+    } else {
+      final int last = this.end - text.length();
+      for (int position = this.start;
+           position <= last && ret == -1;
+           position++) {
+        int matched = 0;
+        while (matched < text.length() && this.text.charAt(position + matched) == text.charAt(matched)) {
+          matched++;
+        }
+        if (matched == text.length()) {
+          ret = position - this.start;
+        }
+      }
+    }
+    return ret;
+  }
+
   /**
    * text, preceding the other text
    * @param text other text
    * @return preceding text
    */
   public String precedingThe(final String text) {
-    if (this.toSource()
-            .contains(text)) {
-      return this.toSource()
-                 .substring(0,
-                            this.toSource()
-                                .indexOf(text));
+    final int position = this.positionOf(text);
+    if (position != -1) {
+      return this.text.subSequence(this.start,
+                                   this.start + position)
+                      .toString();
     } else {
       return "";
     }
@@ -86,11 +227,11 @@ public final class Source
    * @return following text
    */
   public Sense followingThe(final String text) {
-    if (this.toSource()
-            .contains(text)) {
-      return new Source(this.toSource()
-                            .substring(this.toSource()
-                                           .indexOf(text) + text.length()));
+    final int position = this.positionOf(text);
+    if (position != -1) {
+      return new Source(this.text,
+                        this.start + position + text.length(),
+                        this.end);
     } else {
       return this;
     }
@@ -85,6 +85,14 @@ public final class Failed
 
   @Override
   public final String toSource() {
-    return this.token.toSource() + this.followingSource.toSource();
+    final StringBuilder ret = new StringBuilder();
+    this.appendSource(ret);
+    return ret.toString();
+  }
+
+  @Override
+  public final void appendSource(final StringBuilder builder) {
+    this.token.appendSource(builder);
+    this.followingSource.appendSource(builder);
   }
 }
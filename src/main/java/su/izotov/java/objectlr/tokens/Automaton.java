@@ -0,0 +1,355 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.tokens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import su.izotov.java.objectlr.token.Absence;
+import su.izotov.java.objectlr.token.Token;
+
+/**
+ * Aho-Corasick automaton, compiled once from the literals of the tokens. It finds the leftmost
+ * token in a single pass over the text. If several tokens start at the same position, the longest
+ * one is returned, and among tokens with equal literals the last one wins, as in the
+ * {@link Token#leftMost(Token, String)} folding. The index of the token in the list is its id, and
+ * the tokens may be excluded from the search by the mask of their ids.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+final class Automaton {
+
+  private static final BitSet NONE = new BitSet(0);
+  private final Token[] tokens;
+  private final int[] lengths;
+  private final char[][] keys;
+  private final int[][] targets;
+  private final int[] fail;
+  /**
+   * ids of the tokens with the literal of the state, the last one first
+   */
+  private final int[][] terminals;
+  /**
+   * the state itself or the nearest state by the failure links, which has terminals
+   */
+  private final int[] output;
+  private final int depth;
+
+  /**
+   * @param tokens tokens with plain literals, in the order of folding
+   */
+  Automaton(final List<Token> tokens) {
+    this.tokens = tokens.toArray(new Token[0]);
+    this.lengths = new int[this.tokens.length];
+    final List<StringBuilder> edgeKeys = new ArrayList<>(16);
+    final List<List<Integer>> edgeTargets = new ArrayList<>(16);
+    final List<List<Integer>> terminal = new ArrayList<>(16);
+    edgeKeys.add(new StringBuilder(4));
+    edgeTargets.add(new ArrayList<>(4));
+    terminal.add(new ArrayList<>(0));
+    int maximum = 0;
+    for (int index = 0;
+         index < this.tokens.length;
+         index++) {
+      final String literal = this.tokens[index].toSource();
+      this.lengths[index] = literal.length();
+      maximum = Integer.max(maximum,
+                            literal.length());
+      int state = 0;
+      for (int position = 0;
+           position < literal.length();
+           position++) {
+        final char symbol = literal.charAt(position);
+        final int edge = edgeKeys.get(state)
+                                 .indexOf(String.valueOf(symbol));
+        if (edge == -1) {
+          edgeKeys.get(state)
+                  .append(symbol);
+          edgeTargets.get(state)
+                     .add(edgeKeys.size());
+          edgeKeys.add(new StringBuilder(4));
+          edgeTargets.add(new ArrayList<>(4));
+          terminal.add(new ArrayList<>(0));
+          state = edgeKeys.size() - 1;
+        }
+        else {
+          state = edgeTargets.get(state)
+                             .get(edge);
+        }
+      }
+      terminal.get(state)
+              .add(0,
+                   index);
+    }
+    this.depth = maximum;
+    final int size = edgeKeys.size();
+    this.keys = new char[size][];
+    this.targets = new int[size][];
+    for (int state = 0;
+         state < size;
+         state++) {
+      final char[] unsorted = edgeKeys.get(state)
+                                      .toString()
+                                      .toCharArray();
+      final char[] sorted = unsorted.clone();
+      Arrays.sort(sorted);
+      this.keys[state] = sorted;
+      this.targets[state] = new int[sorted.length];
+      for (int edge = 0;
+           edge < unsorted.length;
+           edge++) {
+        this.targets[state][Arrays.binarySearch(sorted,
+                                                unsorted[edge])] = edgeTargets.get(state)
+                                                                              .get(edge);
+      }
+    }
+    this.terminals = new int[size][];
+    for (int state = 0;
+         state < size;
+         state++) {
+      this.terminals[state] = terminal.get(state)
+                                      .stream()
+                                      .mapToInt(Integer::intValue)
+                                      .toArray();
+    }
+    this.fail = new int[size];
+    this.output = new int[size];
+    this.output[0] = -1;
+    final int[] queue = new int[size];
+    int head = 0;
+    int tail = 0;
+    for (final int child : this.targets[0]) {
+      this.fail[child] = 0;
+      this.output[child] = this.terminals[child].length == 0 ?
+                           -1 :
+                           child;
+      queue[tail++] = child;
+    }
+    while (head < tail) {
+      final int state = queue[head++];
+      for (int edge = 0;
+           edge < this.keys[state].length;
+           edge++) {
+        final int child = this.targets[state][edge];
+        int fallback = this.fail[state];
+        int next = this.next(fallback,
+                             this.keys[state][edge]);
+        while (next == -1 && fallback != 0) {
+          fallback = this.fail[fallback];
+          next = this.next(fallback,
+                           this.keys[state][edge]);
+        }
+        this.fail[child] = next == -1 ?
+                           0 :
+                           next;
+        this.output[child] = this.terminals[child].length == 0 ?
+                             this.output[this.fail[child]] :
+                             child;
+        queue[tail++] = child;
+      }
+    }
+  }
+
+  /**
+   * The leftmost token in the text
+   * @param text the text
+   * @return the token or {@link Absence} if there are no tokens in the text
+   */
+  Token leftMostIn(final CharSequence text) {
+    return this.leftMostIn(text,
+                           NONE);
+  }
+
+  /**
+   * The leftmost token in the text, which is not excluded
+   * @param text the text
+   * @param excluded ids of the excluded tokens
+   * @return the token or {@link Absence} if there are no such tokens in the text
+   */
+  Token leftMostIn(final CharSequence text,
+                   final BitSet excluded) {
+    final long found = this.leftMost(text,
+                                     0,
+                                     excluded);
+    return found == -1 ?
+           new Absence() :
+           this.tokens[(int) found];
+  }
+
+  /**
+   * The leftmost token in the text after the position, which is not excluded
+   * @param text the text
+   * @param from the position, where the search starts
+   * @param excluded ids of the excluded tokens
+   * @return the position of the token in the high half and its id in the low half, or -1 if
+   * there are no such tokens in the text
+   */
+  long leftMost(final CharSequence text,
+                final int from,
+                final BitSet excluded) {
+    int state = 0;
+    int found = -1;
+    int start = Integer.MAX_VALUE;
+    for (int position = from;
+         position < text.length() && position - this.depth < start;
+         position++) {
+      state = this.step(state,
+                        text.charAt(position));
+      final int index = this.matched(state,
+                                     excluded);
+      if (index != -1) {
+        final int begin = position + 1 - this.lengths[index];
+        if (begin < start || begin == start && this.lengths[index] > this.lengths[found]) {
+          start = begin;
+          found = index;
+        }
+      }
+    }
+    return found == -1 ?
+           -1 :
+           (long) start << 32 | found;
+  }
+
+  /**
+   * the transition by the symbol, following the failure links
+   * @param state the state
+   * @param symbol the symbol
+   * @return the next state
+   */
+  int step(final int state,
+           final char symbol) {
+    int current = state;
+    int next = this.next(current,
+                         symbol);
+    while (next == -1 && current != 0) {
+      current = this.fail[current];
+      next = this.next(current,
+                       symbol);
+    }
+    return next == -1 ?
+           0 :
+           next;
+  }
+
+  /**
+   * All the tokens, which end at the state, in the order of the preference: the longest first,
+   * and among the equal literals the last one first
+   * @param state the state
+   * @param ids the array of the size of the automaton, receiving the ids of the tokens
+   * @return the number of the tokens
+   */
+  int matches(final int state,
+              final int[] ids) {
+    int ret = 0;
+    for (int matching = this.output[state];
+         matching != -1;
+         matching = this.output[this.fail[matching]]) {
+      for (final int id : this.terminals[matching]) {
+        ids[ret++] = id;
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * @return length of the longest literal
+   */
+  int longest() {
+    return this.depth;
+  }
+
+  /**
+   * @return number of the tokens
+   */
+  int size() {
+    return this.tokens.length;
+  }
+
+  /**
+   * @param id id of the token
+   * @return length of the literal of the token
+   */
+  int length(final int id) {
+    return this.lengths[id];
+  }
+
+  /**
+   * @param id id of the token
+   * @return the token
+   */
+  Token token(final int id) {
+    return this.tokens[id];
+  }
+
+  /**
+   * @param literal the literal
+   * @return ids of the tokens with the literal
+   */
+  int[] ids(final String literal) {
+    int state = 0;
+    for (int position = 0;
+         position < literal.length() && state != -1;
+         position++) {
+      state = this.next(state,
+                        literal.charAt(position));
+    }
+    return state <= 0 ?
+           new int[0] :
+           this.terminals[state];
+  }
+
+  /**
+   * The token, which ends at the state and starts first, among the tokens, which are not excluded
+   * @param state the state
+   * @param excluded ids of the excluded tokens
+   * @return id of the token or -1
+   */
+  private int matched(final int state,
+                      final BitSet excluded) {
+    int ret = -1;
+    for (int matching = this.output[state];
+         matching != -1 && ret == -1;
+         matching = this.output[this.fail[matching]]) {
+      for (final int id : this.terminals[matching]) {
+        if (!excluded.get(id)) {
+          ret = id;
+          break;
+        }
+      }
+    }
+    return ret;
+  }
+
+  private int next(final int state,
+                   final char symbol) {
+    final int edge = Arrays.binarySearch(this.keys[state],
+                                         symbol);
+    return edge < 0 ?
+           -1 :
+           this.targets[state][edge];
+  }
+}
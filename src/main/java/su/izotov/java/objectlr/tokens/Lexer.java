@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.tokens;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * The scan of the text by one token set without the recognition. The leftmost token is searched
+ * as in the recognition by {@code Sense.concat(Source)}, the search continues after its end, and
+ * the tokens are written as triples of ints: the id of the token, its start and its end in the
+ * text. No senses are created, the text between the tokens is skipped.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class Lexer {
+
+  private final Scanner scanner;
+
+  /**
+   * @param tokens the token set, e.g. the tokens of the master sense
+   */
+  public Lexer(final Tokens tokens) {
+    if (tokens instanceof TokensOf) {
+      this.scanner = ((TokensOf) tokens).compiled();
+    }
+    else if (tokens instanceof Masked) {
+      this.scanner = ((Masked) tokens).compiled();
+    }
+    else {
+      this.scanner = new Scanner(Collections.singletonList(tokens));
+    }
+  }
+
+  /**
+   * @param text the text
+   * @return the triples of the id, the start and the end of every token
+   */
+  public int[] lex(final CharSequence text) {
+    int[] ret = new int[48];
+    int size = 0;
+    final int[] found = new int[3];
+    final Scanner.Cursor cursor = this.scanner.cursor(text);
+    int from = 0;
+    while (cursor.leftMost(from,
+                           found)) {
+      if (size == ret.length) {
+        ret = Arrays.copyOf(ret,
+                            size * 2);
+      }
+      ret[size++] = found[0];
+      ret[size++] = found[1];
+      ret[size++] = found[2];
+      from = Lexer.next(found);
+    }
+    return Arrays.copyOf(ret,
+                         size);
+  }
+
+  /**
+   * Writes the triples of the tokens, which fit into the buffer. The scan is continued by the next
+   * call from the returned position.
+   * @param text the text
+   * @param from the position, where the scan starts
+   * @param output the buffer for the triples of the id, the start and the end of the tokens
+   * @return the position, where the scan stopped, or -1 if there are no more tokens in the text
+   */
+  public int lex(final CharSequence text,
+                 final int from,
+                 final IntBuffer output) {
+    final int[] found = new int[3];
+    final Scanner.Cursor cursor = this.scanner.cursor(text);
+    int position = from;
+    while (output.remaining() >= 3) {
+      if (!cursor.leftMost(position,
+                           found)) {
+        return -1;
+      }
+      output.put(found);
+      position = Lexer.next(found);
+    }
+    return position;
+  }
+
+  /**
+   * @param id the id of the token
+   * @return the token, or the member of the set with custom search logic, which found it
+   */
+  public Tokens member(final int id) {
+    return this.scanner.member(id);
+  }
+
+  /**
+   * @param found the id, the start and the end of the token
+   * @return the position after the token
+   */
+  private static int next(final int[] found) {
+    return found[2] > found[1] ?
+           found[2] :
+           found[1] + 1;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.tokens;
+
+import java.util.Collection;
+import su.izotov.java.objectlr.token.Token;
+
+/**
+ * The token set with excluded tokens. It shares the compiled form of the original set, the
+ * excluded tokens are only masked.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+final class Masked
+    implements Tokens {
+
+  private final Scanner scanner;
+
+  /**
+   * @param scanner the compiled set with the mask of the excluded tokens
+   */
+  Masked(final Scanner scanner) {
+    this.scanner = scanner;
+  }
+
+  @Override
+  public Token leftMostIn(final String text) {
+    return this.leftMostIn((CharSequence) text);
+  }
+
+  @Override
+  public Token leftMostIn(final CharSequence text) {
+    return this.scanner.leftMostIn(text);
+  }
+
+  @Override
+  public int longest() {
+    return this.scanner.longest();
+  }
+
+  @Override
+  public Tokens exclude(final Tokens tokens) {
+    return new Masked(this.scanner.exclude(tokens));
+  }
+
+  @Override
+  public boolean contains(final Token token) {
+    return this.scanner.contains(token);
+  }
+
+  /**
+   * @return the compiled form of the set
+   */
+  Scanner compiled() {
+    return this.scanner;
+  }
+
+  /**
+   * @return the tokens, which are not excluded
+   */
+  Collection<Tokens> members() {
+    return this.scanner.members();
+  }
+}
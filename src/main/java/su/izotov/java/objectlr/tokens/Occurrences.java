@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.tokens;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import su.izotov.java.objectlr.text.MappedText;
+
+/**
+ * The index of the occurrences of the tokens in the original text of the source. For each
+ * compiled set of tokens the text is scanned once, forward from the first searched position, and
+ * the ends and the ids of all the found tokens are kept sorted by the end. The search of the
+ * leftmost token after a position, again after the failure of a token, or by the set with
+ * excluded tokens, looks the index up instead of scanning the text again. Only the immutable texts
+ * are indexed. The index is kept by the recognition context for the original text of its sources
+ * while the text is recognized, and is confined to the thread of the run.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class Occurrences {
+
+  /**
+   * number of characters scanned at once beyond the searched position
+   */
+  private static final int BLOCK = 1024;
+  private final CharSequence text;
+  private final Map<Automaton, Index> indexes;
+  /**
+   * number of characters scanned by all the indexes
+   */
+  private int characters;
+
+  /**
+   * @param text the original text
+   */
+  public Occurrences(final CharSequence text) {
+    this.text = text;
+    this.indexes = new IdentityHashMap<>(4);
+  }
+
+  /**
+   * @return true, if the text is immutable and may be indexed
+   */
+  boolean indexed() {
+    return this.text instanceof String || this.text instanceof MappedText;
+  }
+
+  /**
+   * @return number of characters scanned by all the indexes
+   */
+  int scanned() {
+    return this.characters;
+  }
+
+  /**
+   * The leftmost token in the window of the text, which is not excluded, the same as
+   * {@link Automaton#leftMost(CharSequence, int, BitSet)} finds
+   * @param automaton the compiled tokens
+   * @param from beginning of the window, inclusive
+   * @param end end of the window, exclusive
+   * @param excluded ids of the excluded tokens
+   * @return the position of the token in the text in the high half and its id in the low half, or
+   * -1 if there are no such tokens in the window
+   */
+  long leftMost(final Automaton automaton,
+                final int from,
+                final int end,
+                final BitSet excluded) {
+    Index index = this.indexes.get(automaton);
+    if (index == null || from < index.origin || from > index.scanned + BLOCK) {
+      index = new Index(automaton,
+                        from);
+      this.indexes.put(automaton,
+                       index);
+    }
+    return index.leftMost(from,
+                          end,
+                          excluded);
+  }
+
+  /**
+   * the occurrences of the tokens of one automaton, found by the continuous scan from the origin
+   */
+  private final class Index {
+
+    private final Automaton automaton;
+    private final int origin;
+    private final int[] matched;
+    private int scanned;
+    private int state;
+    private int[] ends;
+    private int[] ids;
+    private int size;
+
+    Index(final Automaton automaton,
+          final int origin) {
+      this.automaton = automaton;
+      this.origin = origin;
+      this.matched = new int[automaton.size()];
+      this.scanned = origin;
+      this.ends = new int[64];
+      this.ids = new int[64];
+    }
+
+    long leftMost(final int from,
+                  final int end,
+                  final BitSet excluded) {
+      int found = -1;
+      int start = Integer.MAX_VALUE;
+      int entry = this.after(from);
+      boolean more = true;
+      while (more) {
+        if (entry == this.size) {
+          more = this.scanned < end && this.scanned - this.automaton.longest() < start && this.scan();
+        }
+        else {
+          final int stop = this.ends[entry];
+          more = stop <= end && stop - 1 - this.automaton.longest() < start;
+          if (more) {
+            final int id = this.ids[entry];
+            final int begin = stop - this.automaton.length(id);
+            if (begin >= from && !excluded.get(id) && (begin < start || begin == start && this.automaton.length(id) > this.automaton.length(found))) {
+              start = begin;
+              found = id;
+            }
+            entry++;
+          }
+        }
+      }
+      return found == -1 ?
+             -1 :
+             (long) start << 32 | found;
+    }
+
+    /**
+     * @param from the position
+     * @return the first entry, which ends after the position
+     */
+    private int after(final int from) {
+      int low = 0;
+      int high = this.size;
+      while (low < high) {
+        final int middle = (low + high) >>> 1;
+        if (this.ends[middle] <= from) {
+          low = middle + 1;
+        }
+        else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * scan the next block of the text
+     * @return true, if some characters were scanned
+     */
+    private boolean scan() {
+      final int limit = Integer.min(Occurrences.this.text.length(),
+                                    this.scanned + BLOCK);
+      final int first = this.scanned;
+      while (this.scanned < limit) {
+        this.state = this.automaton.step(this.state,
+                                         Occurrences.this.text.charAt(this.scanned));
+        this.scanned++;
+        final int count = this.automaton.matches(this.state,
+                                                 this.matched);
+        for (int match = 0;
+             match < count;
+             match++) {
+          this.add(this.scanned,
+                   this.matched[match]);
+        }
+      }
+      Occurrences.this.characters += this.scanned - first;
+      return this.scanned > first;
+    }
+
+    private void add(final int end,
+                     final int id) {
+      if (this.size == this.ends.length) {
+        this.ends = Arrays.copyOf(this.ends,
+                                  this.size * 2);
+        this.ids = Arrays.copyOf(this.ids,
+                                 this.size * 2);
+      }
+      this.ends[this.size] = end;
+      this.ids[this.size] = id;
+      this.size++;
+    }
+  }
+}
@@ -0,0 +1,351 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.tokens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.token.Absence;
+import su.izotov.java.objectlr.token.Token;
+
+/**
+ * Compiled form of a token set. Tokens with plain literals are searched by the automaton in one
+ * pass, other members of the set are asked separately and folded with the automaton result.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+final class Scanner {
+
+  /**
+   * the token class does not override the search and exclusion methods of the {@link Token}
+   * interface
+   */
+  private static final ClassValue<Boolean> PLAIN = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+      try {
+        return type.getMethod("leftMostIn",
+                              String.class)
+                   .getDeclaringClass()
+                   .equals(Token.class) && type.getMethod("firstPositionIn",
+                                                          String.class)
+                                               .getDeclaringClass()
+                                               .equals(Token.class) && type.getMethod("length")
+                                                                           .getDeclaringClass()
+                                                                           .equals(Token.class) && type.getMethod("exclude",
+                                                                                                                  Tokens.class)
+                                                                                                       .getDeclaringClass()
+                                                                                                       .equals(Token.class);
+      } catch (final NoSuchMethodException e) {
+        return false;
+      }
+    }
+  };
+  /**
+   * the token class compares tokens by the default {@link Token#contains(Token)}
+   */
+  private static final ClassValue<Boolean> COMPARED = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+      try {
+        return type.getMethod("contains",
+                              Token.class)
+                   .getDeclaringClass()
+                   .equals(Token.class);
+      } catch (final NoSuchMethodException e) {
+        return false;
+      }
+    }
+  };
+  private final Automaton automaton;
+  private final BitSet excluded;
+  private final List<Tokens> others;
+
+  /**
+   * @param tokens members of the token set
+   */
+  Scanner(final Collection<Tokens> tokens) {
+    final List<Token> literals = new ArrayList<>(tokens.size());
+    this.others = new ArrayList<>(0);
+    this.flatten(tokens,
+                 literals);
+    this.automaton = new Automaton(literals);
+    this.excluded = new BitSet(0);
+  }
+
+  private Scanner(final Automaton automaton,
+                  final BitSet excluded,
+                  final List<Tokens> others) {
+    this.automaton = automaton;
+    this.excluded = excluded;
+    this.others = others;
+  }
+
+  /**
+   * The leftmost recognized token in the characters. The characters are converted into the
+   * string only if there are members with custom search logic.
+   * @param text the characters
+   * @return token
+   */
+  Token leftMostIn(final CharSequence text) {
+    final long found;
+    if (text instanceof Source && this.automaton.size() > 0 && ((Source) text).occurrences()
+                                                                              .indexed()) {
+      final Source source = (Source) text;
+      found = source.occurrences()
+                    .leftMost(this.automaton,
+                              source.offset(),
+                              source.offset() + source.length(),
+                              this.excluded);
+    }
+    else {
+      found = this.automaton.leftMost(text,
+                                      0,
+                                      this.excluded);
+    }
+    Token ret = found == -1 ?
+                new Absence() :
+                this.automaton.token((int) found);
+    if (!this.others.isEmpty()) {
+      final String string = text.toString();
+      for (final Tokens other : this.others) {
+        ret = ret.leftMost(other.leftMostIn(string),
+                           string);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * The cursor over the characters for the search of the tokens after the positions, which only
+   * grow, as in the scan by the {@link Lexer}.
+   * @param text the characters
+   * @return the cursor
+   */
+  Cursor cursor(final CharSequence text) {
+    return new Cursor(text);
+  }
+
+  /**
+   * @param id id of the token
+   * @return the token of the automaton, or the member with custom search logic
+   */
+  Tokens member(final int id) {
+    return id < this.automaton.size() ?
+           this.automaton.token(id) :
+           this.others.get(id - this.automaton.size());
+  }
+
+  /**
+   * @return length of the longest token, or -1 if there are members with custom search logic
+   */
+  int longest() {
+    return this.others.isEmpty() ?
+           this.automaton.longest() :
+           -1;
+  }
+
+  /**
+   * The scanner without the tokens of the filter. The automaton is shared, the excluded tokens
+   * are masked by their ids.
+   * @param filter the filter
+   * @return the scanner
+   */
+  Scanner exclude(final Tokens filter) {
+    final BitSet mask = (BitSet) this.excluded.clone();
+    if (filter instanceof Token && COMPARED.get(filter.getClass())) {
+      for (final int id : this.automaton.ids(((Token) filter).toSource())) {
+        if (this.automaton.token(id)
+                          .getClass()
+                          .equals(filter.getClass())) {
+          mask.set(id);
+        }
+      }
+    }
+    else {
+      for (int id = this.excluded.nextClearBit(0);
+           id < this.automaton.size();
+           id = this.excluded.nextClearBit(id + 1)) {
+        if (filter.contains(this.automaton.token(id))) {
+          mask.set(id);
+        }
+      }
+    }
+    final List<Tokens> rest = new ArrayList<>(this.others.size());
+    for (final Tokens other : this.others) {
+      final Tokens remaining = other.exclude(filter);
+      if (!(remaining instanceof Empty)) {
+        rest.add(remaining);
+      }
+    }
+    return new Scanner(this.automaton,
+                       mask,
+                       rest);
+  }
+
+  /**
+   * @param token checked token
+   * @return true, if any of the tokens, which are not excluded, contains the token
+   */
+  boolean contains(final Token token) {
+    boolean ret = false;
+    for (int id = this.excluded.nextClearBit(0);
+         id < this.automaton.size() && !ret;
+         id = this.excluded.nextClearBit(id + 1)) {
+      ret = this.automaton.token(id)
+                          .contains(token);
+    }
+    for (final Tokens other : this.others) {
+      ret = ret || other.contains(token);
+    }
+    return ret;
+  }
+
+  /**
+   * @return the tokens, which are not excluded
+   */
+  Collection<Tokens> members() {
+    final Collection<Tokens> ret = new ArrayList<>(this.automaton.size() + this.others.size());
+    for (int id = this.excluded.nextClearBit(0);
+         id < this.automaton.size();
+         id = this.excluded.nextClearBit(id + 1)) {
+      ret.add(this.automaton.token(id));
+    }
+    ret.addAll(this.others);
+    return ret;
+  }
+
+  private void flatten(final Collection<Tokens> tokens,
+                       final List<Token> literals) {
+    for (final Tokens member : tokens) {
+      if (member instanceof TokensOf) {
+        this.flatten(((TokensOf) member).members(),
+                     literals);
+      }
+      else if (member instanceof Masked) {
+        this.flatten(((Masked) member).members(),
+                     literals);
+      }
+      else if (member instanceof Token && PLAIN.get(member.getClass()) && !((Token) member).toSource()
+                                                                                          .isEmpty()) {
+        literals.add((Token) member);
+      }
+      else if (!(member instanceof Empty)) {
+        this.others.add(member);
+      }
+    }
+  }
+
+  /**
+   * The search of the leftmost tokens after the growing positions, folded in the same way as by
+   * {@link #leftMostIn(CharSequence)}. The members with custom search logic are placed by the
+   * first position and the length of the token they return, their ids follow the ids of the
+   * automaton. The member searches the window of the characters after the position, and the
+   * token found by it is kept until the position passes its start, so the member searches the
+   * rest of the text once per its token, not once per position.
+   */
+  final class Cursor {
+
+    private final CharSequence text;
+    /**
+     * the start of the next token of every member with custom search logic, -1 if it is not
+     * searched yet, or {@link Integer#MAX_VALUE} if there are no more tokens
+     */
+    private final int[] starts;
+    private final int[] lengths;
+
+    private Cursor(final CharSequence text) {
+      this.text = text;
+      this.starts = new int[Scanner.this.others.size()];
+      this.lengths = new int[Scanner.this.others.size()];
+      Arrays.fill(this.starts,
+                  -1);
+    }
+
+    /**
+     * @param from the position, where the search starts
+     * @param found the id, the start and the end of the token
+     * @return true, if the token is found
+     */
+    boolean leftMost(final int from,
+                     final int[] found) {
+      final long packed = Scanner.this.automaton.leftMost(this.text,
+                                                          from,
+                                                          Scanner.this.excluded);
+      int id = (int) packed;
+      int start = (int) (packed >> 32);
+      int length = packed == -1 ?
+                   0 :
+                   Scanner.this.automaton.length(id);
+      for (int member = 0;
+           member < this.starts.length;
+           member++) {
+        if (this.starts[member] < from) {
+          this.search(member,
+                      from);
+        }
+        final int position = this.starts[member];
+        if (position != Integer.MAX_VALUE && (id == -1 || position < start || position == start && length <= this.lengths[member])) {
+          id = Scanner.this.automaton.size() + member;
+          start = position;
+          length = this.lengths[member];
+        }
+      }
+      found[0] = id;
+      found[1] = start;
+      found[2] = start + length;
+      return id != -1;
+    }
+
+    /**
+     * The member searches the window of the text from the position, the text is not copied, if
+     * the member searches the characters without the conversion into the string.
+     * @param member the number of the member with custom search logic
+     * @param from the position, where the search starts
+     */
+    private void search(final int member,
+                        final int from) {
+      final Source rest = new Source(this.text,
+                                     from,
+                                     this.text.length());
+      final Token token = Scanner.this.others.get(member)
+                                             .leftMostIn(rest);
+      final int position = token instanceof Absence ?
+                           -1 :
+                           rest.positionOf(token.toSource());
+      if (position == -1) {
+        this.starts[member] = Integer.MAX_VALUE;
+      }
+      else {
+        this.starts[member] = from + position;
+        this.lengths[member] = token.length();
+      }
+    }
+  }
+}
@@ -38,6 +38,27 @@ public interface Tokens {
    */
   Token leftMostIn(String text);
 
+  /**
+   * The leftmost recognized token in the sequence of characters, for example in the window of
+   * the source text. By default, the sequence is converted into the string; the set, which
+   * searches the characters directly, is searched by the {@link Lexer} without copying the rest
+   * of the text.
+   * @param text the characters
+   * @return token
+   */
+  default Token leftMostIn(final CharSequence text) {
+    return this.leftMostIn(text.toString());
+  }
+
+  /**
+   * Length of the longest token of the set. Any token found in the text is the leftmost one, if
+   * the text contains at least this number of characters from the beginning of the token.
+   * @return the length, or -1 if it is unknown
+   */
+  default int longest() {
+    return -1;
+  }
+
   /**
    * Creates a new token set from an existing token set that does not intersect with a given
    * token set
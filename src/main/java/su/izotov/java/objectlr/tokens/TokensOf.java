@@ -26,10 +26,8 @@ package su.izotov.java.objectlr.tokens;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Set;
 import org.cactoos.Func;
-import org.cactoos.collection.Mapped;
 import org.cactoos.scalar.Or;
 import org.cactoos.scalar.UncheckedScalar;
 import su.izotov.java.objectlr.token.Absence;
@@ -43,6 +41,10 @@ public final class TokensOf
     implements Tokens {
 
   private final Set<Tokens> tokens = new HashSet<>(10);
+  /**
+   * the compiled form of the set, created at the first search
+   */
+  private transient volatile Scanner scanner;
 
   public TokensOf(final Tokens... tokens) {
     this(Arrays.asList(tokens));
@@ -54,26 +56,28 @@ public final class TokensOf
 
   @Override
   public final Token leftMostIn(final String text) {
+    return this.leftMostIn((CharSequence) text);
+  }
+
+  @Override
+  public final Token leftMostIn(final CharSequence text) {
     if (this.tokens.isEmpty()) {
       return new Absence();
     }
-    final Iterator<Tokens> iterator = this.tokens.iterator();
-    Token ret = iterator.hasNext() ?
-                    iterator.next()
-                            .leftMostIn(text) :
-                    new Absence();
-    while (iterator.hasNext()) {
-      ret = ret.leftMost(iterator.next()
-                                 .leftMostIn(text),
-                         text);
-    }
-    return ret;
+    return this.compiled()
+               .leftMostIn(text);
+  }
+
+  @Override
+  public final int longest() {
+    return this.compiled()
+               .longest();
   }
 
   @Override
   public final Tokens exclude(final Tokens tokens) {
-    return new TokensOf(new Mapped<>(tokens1 -> tokens1.exclude(tokens),
-                                     this.tokens));
+    return new Masked(this.compiled()
+                          .exclude(tokens));
   }
 
   @Override
@@ -81,4 +85,23 @@ public final class TokensOf
     return new UncheckedScalar<>(new Or((Func<Tokens, Boolean>) tokens1 -> tokens1.contains(token),
                                         this.tokens)).value();
   }
+
+  /**
+   * @return the compiled form of the set
+   */
+  Scanner compiled() {
+    Scanner ret = this.scanner;
+    if (ret == null) {
+      ret = new Scanner(this.tokens);
+      this.scanner = ret;
+    }
+    return ret;
+  }
+
+  /**
+   * @return members of the set
+   */
+  Collection<Tokens> members() {
+    return this.tokens;
+  }
 }
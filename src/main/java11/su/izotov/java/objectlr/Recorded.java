@@ -0,0 +1,303 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The metrics, which record the searches of tokens, the resolutions of interactions, the
+ * re-recognitions after the failures, the reductions of chains and the recognitions of sentences
+ * as the events of the flight recorder. The events are recorded on Java 11 and later, on the
+ * earlier versions the metrics do nothing. The event begins when the stage begins and is kept by
+ * the thread till the stage is finished; the events of the stages, which were left by an
+ * exception, are dropped when the enclosing stage is finished.
+ * <p>Created with IntelliJ IDEA.</p>
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class Recorded
+    implements Metrics {
+
+  private static final EventType SEARCH = EventType.getEventType(Search.class);
+  private static final EventType RESOLUTION = EventType.getEventType(Resolution.class);
+  private static final EventType FAILURE = EventType.getEventType(Failure.class);
+  private static final EventType REDUCTION = EventType.getEventType(Reduction.class);
+  private static final EventType RUN = EventType.getEventType(Run.class);
+  /**
+   * the begun events of the thread, the start of the stage is the number of the events after its
+   * event was added
+   */
+  private final ThreadLocal<List<Event>> begun = ThreadLocal.withInitial(() -> new ArrayList<>(16));
+
+  @Override
+  public long time(final Stage stage) {
+    final Event event = Recorded.event(stage);
+    long ret = 0;
+    if (event != null) {
+      final List<Event> events = this.begun.get();
+      events.add(event);
+      event.begin();
+      ret = events.size();
+    }
+    return ret;
+  }
+
+  @Override
+  public void interaction(final Class<?> master,
+                          final Class<?> guest,
+                          final long start) {
+    // nothing to do
+  }
+
+  @Override
+  public void resolution(final Class<?> master,
+                         final Class<?> guest,
+                         final int offset,
+                         final long start) {
+    final Resolution event = this.finished(start,
+                                           Resolution.class);
+    if (event != null) {
+      event.end();
+      event.master = master.getName();
+      event.guest = guest.getName();
+      event.offset = offset;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void reduction(final Class<?> master,
+                        final Class<?> guest,
+                        final int depth,
+                        final int offset,
+                        final long start) {
+    final Reduction event = this.finished(start,
+                                          Reduction.class);
+    if (event != null) {
+      event.end();
+      event.master = master.getName();
+      event.guest = guest.getName();
+      event.depth = depth;
+      event.offset = offset;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void search(final Class<?> sense,
+                     final int offset,
+                     final int characters,
+                     final long start) {
+    final Search event = this.finished(start,
+                                       Search.class);
+    if (event != null) {
+      event.end();
+      event.sense = sense.getName();
+      event.offset = offset;
+      event.characters = characters;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void failure(final Class<?> sense,
+                      final Class<?> token,
+                      final int offset,
+                      final long start) {
+    final Failure event = this.finished(start,
+                                        Failure.class);
+    if (event != null) {
+      event.end();
+      event.sense = sense.getName();
+      event.token = token.getName();
+      event.offset = offset;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void exclusion(final int depth) {
+    // nothing to do
+  }
+
+  @Override
+  public void discovery(final Class<?> type) {
+    // nothing to do
+  }
+
+  @Override
+  public void recognition(final int characters,
+                          final long start) {
+    final Run event = this.finished(start,
+                                    Run.class);
+    if (event != null) {
+      event.end();
+      event.characters = characters;
+      event.commit();
+    }
+  }
+
+  /**
+   * @param stage the stage
+   * @return the event of the stage, or null, if the stage is not recorded
+   */
+  private static Event event(final Stage stage) {
+    final Event ret;
+    if (stage == Stage.SEARCH) {
+      ret = SEARCH.isEnabled() ?
+            new Search() :
+            null;
+    }
+    else if (stage == Stage.RESOLUTION) {
+      ret = RESOLUTION.isEnabled() ?
+            new Resolution() :
+            null;
+    }
+    else if (stage == Stage.FAILURE) {
+      ret = FAILURE.isEnabled() ?
+            new Failure() :
+            null;
+    }
+    else if (stage == Stage.REDUCTION) {
+      ret = REDUCTION.isEnabled() ?
+            new Reduction() :
+            null;
+    }
+    else if (stage == Stage.RECOGNITION) {
+      ret = RUN.isEnabled() ?
+            new Run() :
+            null;
+    }
+    else {
+      ret = null;
+    }
+    return ret;
+  }
+
+  /**
+   * take the event of the finished stage, the events begun after it are dropped
+   * @param start the start of the stage
+   * @param type the class of the event of the stage
+   * @param <E> the type of the event
+   * @return the event, or null, if it was not begun
+   */
+  private <E extends Event> E finished(final long start,
+                                       final Class<E> type) {
+    E ret = null;
+    if (start > 0) {
+      final List<Event> events = this.begun.get();
+      if (start <= events.size()) {
+        final Event event = events.get((int) start - 1);
+        events.subList((int) start - 1,
+                       events.size())
+              .clear();
+        if (type.isInstance(event)) {
+          ret = type.cast(event);
+        }
+      }
+    }
+    return ret;
+  }
+
+  @Name("su.izotov.objectlr.Search")
+  @Label("Token Search")
+  @Category("ObjectLR")
+  @StackTrace(false)
+  static final class Search
+      extends Event {
+
+    @Label("Sense")
+    String sense;
+    @Label("Offset")
+    int offset;
+    @Label("Characters")
+    int characters;
+  }
+
+  @Name("su.izotov.objectlr.Resolution")
+  @Label("Interaction Resolution")
+  @Category("ObjectLR")
+  @StackTrace(false)
+  static final class Resolution
+      extends Event {
+
+    @Label("Master")
+    String master;
+    @Label("Guest")
+    String guest;
+    @Label("Offset")
+    int offset;
+  }
+
+  @Name("su.izotov.objectlr.Failure")
+  @Label("Failed Token Re-recognition")
+  @Category("ObjectLR")
+  @StackTrace(false)
+  static final class Failure
+      extends Event {
+
+    @Label("Sense")
+    String sense;
+    @Label("Token")
+    String token;
+    @Label("Offset")
+    int offset;
+  }
+
+  @Name("su.izotov.objectlr.Reduction")
+  @Label("Chain Reduction")
+  @Category("ObjectLR")
+  @StackTrace(false)
+  static final class Reduction
+      extends Event {
+
+    @Label("Master")
+    String master;
+    @Label("Guest")
+    String guest;
+    @Label("Depth")
+    int depth;
+    @Label("Offset")
+    int offset;
+  }
+
+  @Name("su.izotov.objectlr.Sentence")
+  @Label("Sentence Recognition")
+  @Category("ObjectLR")
+  @StackTrace(false)
+  static final class Run
+      extends Event {
+
+    @Label("Characters")
+    int characters;
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.token.EOF;
+
+/**
+ * Created with IntelliJ IDEA.
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class BatchTest {
+
+  private static final String[] WORDS = {"first", "second", "third", "text", " ", "thi"};
+
+  @Test
+  public void testOrderedResults() throws
+                                   RecognitionException {
+    final List<String> texts = new ArrayList<>(1000);
+    final List<String> expected = new ArrayList<>(1000);
+    for (int index = 0;
+         index < 1000;
+         index++) {
+      final String text = BatchTest.text(index);
+      texts.add(text);
+      expected.add(new MKSentence(text).toObject()
+                                       .toVisual()
+                                       .toSource());
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    final List<Recognized<Sense>> results = new Batch<>(MKSentence::new,
+                                                        Sense.class,
+                                                        Recognition::new,
+                                                        executor,
+                                                        3,
+                                                        7).recognized(texts);
+    assertEquals(texts.size(),
+                 results.size());
+    for (int index = 0;
+         index < texts.size();
+         index++) {
+      assertTrue(results.get(index)
+                        .recognized());
+      assertEquals(expected.get(index),
+                   results.get(index)
+                          .object()
+                          .toVisual()
+                          .toSource());
+    }
+    assertEquals(expected,
+                 new Batch<>(MKSentence::new,
+                             Sense.class,
+                             executor).recognized(texts.stream())
+                                      .map(recognized -> recognized.failure()
+                                                                   .isPresent() ?
+                                                         "" :
+                                                         BatchTest.visual(recognized))
+                                      .collect(Collectors.toList()));
+    executor.shutdown();
+  }
+
+  @Test
+  public void testBoundedTexts() {
+    final AtomicInteger taken = new AtomicInteger();
+    final Iterator<String> texts = IntStream.range(0,
+                                                   100000)
+                                            .peek(index -> taken.incrementAndGet())
+                                            .mapToObj(BatchTest::text)
+                                            .iterator();
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    final Iterator<Recognized<Sense>> results = new Batch<>(MKSentence::new,
+                                                            Sense.class,
+                                                            Recognition::new,
+                                                            executor,
+                                                            2,
+                                                            5).recognized(texts);
+    for (int index = 0;
+         index < 12;
+         index++) {
+      results.next();
+    }
+    assertTrue(String.valueOf(taken.get()),
+               taken.get() <= 25);
+    executor.shutdown();
+  }
+
+  @Test
+  public void testWorkers() throws
+                            RecognitionException {
+    final ExecutorService executor = Workers.executor();
+    final List<String> texts = Arrays.asList("first", "second text", "");
+    final List<Recognized<Sense>> results = new Batch<>(MKSentence::new,
+                                                        Sense.class,
+                                                        executor).recognized(texts);
+    for (int index = 0;
+         index < texts.size();
+         index++) {
+      assertEquals(texts.get(index),
+                   results.get(index)
+                          .object()
+                          .toSource());
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  public void testFailures() throws
+                             RecognitionException {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    final List<Recognized<Chain>> results = new Batch<>(BatchTest::chained,
+                                                        Chain.class,
+                                                        Recognition::new,
+                                                        executor,
+                                                        2,
+                                                        2).recognized(Arrays.asList("first",
+                                                                                    "boom",
+                                                                                    "",
+                                                                                    "second text"));
+    assertEquals(4,
+                 results.size());
+    assertEquals("first",
+                 results.get(0)
+                        .object()
+                        .toSource());
+    assertTrue(results.get(1)
+                      .failure()
+                      .get()
+                      .getCause() instanceof IllegalStateException);
+    assertFalse(results.get(2)
+                       .recognized());
+    assertTrue(results.get(2)
+                      .failure()
+                      .get()
+                      .sense() instanceof EOF);
+    assertEquals("second text",
+                 results.get(3)
+                        .object()
+                        .toSource());
+    executor.shutdown();
+  }
+
+  private static Sentence<?, Chain> chained(final CharSequence text) {
+    return "boom".contentEquals(text) ?
+           new Sentence<Exploding, Chain>(text,
+                                          new Exploding()) {} :
+           new Sentence<MKLangImpl, Chain>(text,
+                                           new MKLangImpl()) {};
+  }
+
+  private static String text(final int index) {
+    final StringBuilder ret = new StringBuilder(40);
+    for (int word = 0;
+         word < index % 9;
+         word++) {
+      ret.append(WORDS[(index + word * 7) % WORDS.length]);
+    }
+    return ret.toString();
+  }
+
+  private static String visual(final Recognized<Sense> recognized) {
+    try {
+      return recognized.object()
+                       .toVisual()
+                       .toSource();
+    } catch (final RecognitionException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * the master, which throws the exception instead of the recognition
+   */
+  private static final class Exploding
+      implements Sense {
+
+    @Override
+    public Sense concat(final Source source) {
+      throw new IllegalStateException(source.toString());
+    }
+
+    @Override
+    public String toSource() {
+      return "";
+    }
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import su.izotov.java.objectlr.text.Text;
+import su.izotov.java.objectlr.token.Token;
+
+/**
+ * Created with IntelliJ IDEA.
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class CacheTest {
+
+  private static final String TEXT = MKSentence.TEXT;
+
+  @Test
+  public void testRepeatedSentence() throws
+                                     RecognitionException {
+    final Cache cache = new Cache(10,
+                                  10000);
+    final Sense first = cache.toObject(new MKSentence(TEXT));
+    final Sense second = cache.toObject(new MKSentence(TEXT));
+    assertSame(first,
+               second);
+    assertEquals(new MKSentence(TEXT).toObject()
+                                     .toVisual()
+                                     .toSource(),
+                 second.toVisual()
+                       .toSource());
+    assertEquals(1,
+                 cache.hits());
+    assertEquals(1,
+                 cache.misses());
+    cache.toObject(new MKSentence(TEXT),
+                   new Recognition(new Silent()).withGrammar(Grammar.of(MKLangImpl.class)));
+    assertEquals(2,
+                 cache.misses());
+  }
+
+  @Test
+  public void testBounds() throws
+                           RecognitionException {
+    final Cache cache = new Cache(3,
+                                  10000);
+    for (int index = 0;
+         index < 10;
+         index++) {
+      cache.toObject(new MKSentence("first " + index));
+      cache.toObject(new MKSentence("first"));
+      assertTrue(cache.size() <= 3);
+    }
+    assertEquals(9,
+                 cache.hits());
+    final Cache small = new Cache(100,
+                                  30);
+    for (int index = 0;
+         index < 10;
+         index++) {
+      small.toObject(new MKSentence("second " + index));
+      assertTrue(small.size() <= 2);
+    }
+  }
+
+  @Test
+  public void testMutableNotCached() throws
+                                     RecognitionException {
+    final Cache cache = new Cache(10,
+                                  10000);
+    for (int index = 0;
+         index < 2;
+         index++) {
+      cache.toObject(new Sentence<Mutable, Sense>("text",
+                                                  new Mutable()) {});
+    }
+    assertEquals(0,
+                 cache.hits());
+    assertEquals(0,
+                 cache.size());
+  }
+
+  @Test
+  public void testConfiguredMasters() throws
+                                      RecognitionException {
+    final Cache cache = new Cache(10,
+                                  10000);
+    assertEquals("text!",
+                 cache.toObject(new Sentence<Configured, Sense>("text",
+                                                                new Configured("!")) {})
+                      .toSource());
+    assertEquals("text?",
+                 cache.toObject(new Sentence<Configured, Sense>("text",
+                                                                new Configured("?")) {})
+                      .toSource());
+    assertEquals("text!",
+                 cache.toObject(new Sentence<Configured, Sense>("text",
+                                                                new Configured("!")) {})
+                      .toSource());
+    assertEquals(2,
+                 cache.size());
+    assertEquals(1,
+                 cache.hits());
+  }
+
+  @Test
+  public void testShallowImmutableNotCached() throws
+                                              RecognitionException {
+    final Cache cache = new Cache(10,
+                                  10000);
+    for (int index = 0;
+         index < 2;
+         index++) {
+      cache.toObject(new Sentence<Collecting, Sense>("text",
+                                                     new Collecting()) {});
+    }
+    assertEquals(0,
+                 cache.hits());
+    assertEquals(0,
+                 cache.size());
+  }
+
+  @Test
+  public void testListenerNotCached() throws
+                                      RecognitionException {
+    final Cache cache = new Cache(10,
+                                  10000);
+    final List<String> texts = new ArrayList<>(2);
+    final Listener listener = new Listener() {
+      @Override
+      public void onText(final CharSequence text) {
+        texts.add(text.toString());
+      }
+
+      @Override
+      public void onToken(final Token token) {
+      }
+
+      @Override
+      public void onReduced(final Sense sense) {
+      }
+    };
+    cache.toObject(new MKSentence(TEXT),
+                   new Recognition(new Silent()).withListener(listener));
+    final int first = texts.size();
+    assertTrue(first > 0);
+    cache.toObject(new MKSentence(TEXT),
+                   new Recognition(new Silent()).withListener(listener));
+    assertEquals(first * 2,
+                 texts.size());
+    assertEquals(0,
+                 cache.hits());
+    assertEquals(0,
+                 cache.size());
+  }
+
+  /**
+   * the final class with the final field of the mutable type
+   */
+  private static final class Collecting
+      implements Sense {
+
+    private final StringBuilder recognized = new StringBuilder(16);
+
+    public Text concat(final Text text) {
+      this.recognized.append(text.toSource());
+      return text;
+    }
+
+    @Override
+    public Text textToken(final String text) {
+      return new MKText(text);
+    }
+
+    @Override
+    public String toSource() {
+      return "";
+    }
+  }
+
+  private static final class Configured
+      implements Sense {
+
+    private final String suffix;
+
+    Configured(final String suffix) {
+      this.suffix = suffix;
+    }
+
+    public Text concat(final Text text) {
+      return new MKText(text.toSource() + this.suffix);
+    }
+
+    @Override
+    public Text textToken(final String text) {
+      return new MKText(text);
+    }
+
+    @Override
+    public String toSource() {
+      return "";
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      return other instanceof Configured && ((Configured) other).suffix.equals(this.suffix);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.suffix.hashCode();
+    }
+  }
+
+  private static final class Mutable
+      implements Sense {
+
+    private int recognized;
+
+    public Text concat(final Text text) {
+      this.recognized++;
+      return text;
+    }
+
+    @Override
+    public Text textToken(final String text) {
+      return new MKText(text);
+    }
+
+    @Override
+    public String toSource() {
+      return "";
+    }
+  }
+}
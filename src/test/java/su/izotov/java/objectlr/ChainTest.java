@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.token.Failed;
+
+/**
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class ChainTest {
+
+  @Test
+  public void testLongChainOnSmallStack() throws
+                                          Exception {
+    final StringBuilder text = new StringBuilder(600000);
+    for (int token = 0;
+         token < 100000;
+         token++) {
+      text.append("first ");
+    }
+    final AtomicReference<Object> result = new AtomicReference<>();
+    final Thread thread = new Thread(null,
+                                     () -> {
+                                       try {
+                                         final Sense chain = new MKLangImpl().concat(new Source(text));
+                                         chain.toVisual();
+                                         result.set(chain.toSource());
+                                       } catch (final Throwable e) {
+                                         result.set(e);
+                                       }
+                                     },
+                                     "small stack",
+                                     256 * 1024);
+    thread.start();
+    thread.join();
+    assertEquals(text.toString(),
+                 result.get());
+  }
+
+  @Test
+  public void testSameVisual() {
+    final Chain chain = new Chain(new Chain(new One(new MKText("string ")),
+                                            new MKSecondToken()),
+                                  new MKText(" after"));
+    assertEquals(new MKText("string ").toVisual()
+                                      .addBottom(new MKSecondToken().toVisual())
+                                      .addBottom(new MKText(" after").toVisual())
+                                      .toSource(),
+                 chain.toVisual()
+                      .toSource());
+  }
+
+  @Test
+  public void testFailedSource() {
+    assertEquals("first text",
+                 new Failed(new MKFirstToken(),
+                            new Source("first first text",
+                                       11,
+                                       16)).toSource());
+  }
+}
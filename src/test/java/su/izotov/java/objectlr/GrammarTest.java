@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.token.Token;
+import su.izotov.java.objectlr.tokens.Tokens;
+
+/**
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class GrammarTest {
+
+  private static final String TEXT = MKSentence.TEXT;
+
+  @Test
+  public void testSameRecognition() {
+    assertEquals(GrammarTest.recognize(new Recognition(new Silent())),
+                 GrammarTest.recognize(new Recognition(new Silent()).withGrammar(Grammar.of(MKLangImpl.class))));
+  }
+
+  @Test
+  public void testWrittenAndRead() throws
+                                   IOException {
+    final Grammar grammar = Grammar.of(MKLangImpl.class);
+    final ByteArrayOutputStream written = new ByteArrayOutputStream();
+    grammar.write(written);
+    final Grammar read = Grammar.read(new ByteArrayInputStream(written.toByteArray()),
+                                      this.getClass()
+                                          .getClassLoader());
+    final ByteArrayOutputStream rewritten = new ByteArrayOutputStream();
+    read.write(rewritten);
+    assertArrayEquals(written.toByteArray(),
+                      rewritten.toByteArray());
+    assertEquals(GrammarTest.recognize(new Recognition(new Silent())),
+                 GrammarTest.recognize(new Recognition(new Silent()).withGrammar(read)));
+  }
+
+  @Test
+  public void testDiscoveredTokens() {
+    final Grammar grammar = Grammar.of(MKAutoTokens.class);
+    final Tokens discovered = new MKAutoTokens().tokens();
+    for (final Token token : new Token[]{new MKFirstToken(),
+                                         new MKSecondToken(),
+                                         new MKThirdToken()}) {
+      assertEquals(discovered.contains(token),
+                   grammar.tokens(MKAutoTokens.class)
+                          .contains(token));
+    }
+    assertTrue(grammar.tokens(MKAutoTokens.class)
+                      .contains(new MKFirstToken()));
+    assertTrue(grammar.tokens(MKAutoTokens.class) == grammar.tokens(MKAutoTokens.class));
+  }
+
+  private static String recognize(final Recognition recognition) {
+    return recognition.run(() -> new MKLangImpl().concatDD(new Source(TEXT)))
+                      .toVisual()
+                      .toSource();
+  }
+}
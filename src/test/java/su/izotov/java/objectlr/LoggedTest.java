@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import su.izotov.java.objectlr.print.Cell;
+
+/**
+ * Created with IntelliJ IDEA.
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class LoggedTest {
+
+  @Test
+  public void testNothingIsBuiltWhenNotLoggable() {
+    final Logger logger = Logger.getAnonymousLogger();
+    logger.setLevel(Level.WARNING);
+    final Trace instance = new Logged(logger);
+    final Sense invisible = new Invisible();
+    instance.interaction(invisible,
+                         invisible,
+                         "concat");
+    instance.result(invisible);
+  }
+
+  @Test
+  public void testTraceIsLogged() {
+    final Logger logger = Logger.getAnonymousLogger();
+    logger.setUseParentHandlers(false);
+    final List<String> messages = new ArrayList<>(1);
+    logger.addHandler(new Handler() {
+      @Override
+      public void publish(final LogRecord record) {
+        messages.add(record.getMessage());
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    });
+    final Trace instance = new Logged(logger);
+    instance.interaction(new MKLangImpl(),
+                         new MKSecondToken(),
+                         "concat");
+    instance.result(new MKSecondToken());
+    assertEquals(1,
+                 messages.size());
+    assertTrue(messages.get(0)
+                       .endsWith("MKLangImpl  |  MKSecondToken  'second'  - concat\n" + "VVVVV\n" + "MKSecondToken  'second'\n" + "-----"));
+  }
+
+  private static final class Invisible
+      implements Sense {
+
+    @Override
+    public Cell toVisual() {
+      throw new UnsupportedOperationException("#toVisual()");
+    }
+
+    @Override
+    public String toSource() {
+      throw new UnsupportedOperationException("#toSource()");
+    }
+  }
+}
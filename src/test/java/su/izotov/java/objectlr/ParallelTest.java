@@ -0,0 +1,284 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.text.Text;
+import su.izotov.java.objectlr.token.Absence;
+import su.izotov.java.objectlr.token.Marker;
+import su.izotov.java.objectlr.token.Token;
+import su.izotov.java.objectlr.tokens.Tokens;
+import su.izotov.java.objectlr.tokens.TokensOf;
+
+/**
+ * Created with IntelliJ IDEA.
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class ParallelTest {
+
+  @Test
+  public void testSameAsSequential() throws
+                                     RecognitionException {
+    final StringBuilder text = new StringBuilder(4000);
+    for (int record = 0;
+         record < 200;
+         record++) {
+      text.append("key value")
+          .append(record)
+          .append(record % 7 == 0 ?
+                  " !;" :
+                  ";");
+    }
+    final String expected = new Sentence<Records.Master, Sense>(text,
+                                                                new Records.Master()) {}.toObject()
+                                                                                        .toVisual()
+                                                                                        .toSource();
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    for (final int segment : new int[]{0, 1, 50, 500, 10000}) {
+      assertEquals("segment " + segment,
+                   expected,
+                   new Parallel<Records.Master, Sense>(text,
+                                                       new Records.Master(),
+                                                       new Records.Semicolon(),
+                                                       pool,
+                                                       segment) {}.toObject()
+                                                                  .toVisual()
+                                                                  .toSource());
+    }
+    pool.shutdown();
+  }
+
+  @Test
+  public void testSeparatorAtTheEnd() throws
+                                      RecognitionException {
+    assertEquals(new Sentence<Records.Master, Sense>("key a;key b;",
+                                                     new Records.Master()) {}.toObject()
+                                                                             .toVisual()
+                                                                             .toSource(),
+                 new Parallel<Records.Master, Sense>("key a;key b;",
+                                                     new Records.Master(),
+                                                     new Records.Semicolon(),
+                                                     ForkJoinPool.commonPool(),
+                                                     1) {}.toObject()
+                                                          .toVisual()
+                                                          .toSource());
+  }
+
+  @Test
+  public void testSeparatorInsideLongerToken() throws
+                                              RecognitionException {
+    ParallelTest.assertSame("key a;;key b;");
+    ParallelTest.assertSame("key a;;;key b;;key c;");
+  }
+
+  @Test
+  public void testFailedTokens() throws
+                                 RecognitionException {
+    ParallelTest.assertSame("key a; key b;key c;");
+    ParallelTest.assertSame("key a;key b;x;key c; ;key d;");
+  }
+
+  @Test
+  public void testListener() throws
+                             RecognitionException {
+    final List<String> sequential = new ArrayList<>(20);
+    final List<String> parallel = new ArrayList<>(20);
+    new Sentence<Records.Master, Sense>("key a;key b;",
+                                        new Records.Master()) {}.toObject(new Recognition(new Silent()).withListener(ParallelTest.listener(sequential)));
+    new Parallel<Records.Master, Sense>("key a;key b;",
+                                        new Records.Master(),
+                                        new Records.Semicolon(),
+                                        ForkJoinPool.commonPool(),
+                                        1) {}.toObject(new Recognition(new Silent()).withListener(ParallelTest.listener(parallel)));
+    assertEquals(sequential,
+                 parallel);
+    assertEquals(8,
+                 parallel.size());
+  }
+
+  private static void assertSame(final String text) throws
+                                                    RecognitionException {
+    assertEquals(text,
+                 new Sentence<Records.Master, Sense>(text,
+                                                     new Records.Master()) {}.toObject()
+                                                                             .toVisual()
+                                                                             .toSource(),
+                 new Parallel<Records.Master, Sense>(text,
+                                                     new Records.Master(),
+                                                     new Records.Semicolon(),
+                                                     ForkJoinPool.commonPool(),
+                                                     1) {}.toObject()
+                                                          .toVisual()
+                                                          .toSource());
+  }
+
+  private static Listener listener(final List<String> events) {
+    return new Listener() {
+      @Override
+      public void onText(final CharSequence text) {
+        events.add("text '" + text + '\'');
+      }
+
+      @Override
+      public void onToken(final Token token) {
+        events.add("token '" + token.toSource() + '\'');
+      }
+
+      @Override
+      public void onReduced(final Sense sense) {
+        events.add("reduced '" + sense.toSource() + '\'');
+      }
+    };
+  }
+
+  /**
+   * the language of the records separated by semicolons, the exclamation mark joins the following
+   * semicolon, so the records after it are joined sequentially, the double semicolon contains the
+   * separator
+   */
+  public interface Records
+      extends Sense {
+
+    Tokens TOKENS = new TokensOf(new Key(),
+                                 new Bang(),
+                                 new Semicolon(),
+                                 new Double());
+
+    @Override
+    default Tokens tokens() {
+      return TOKENS;
+    }
+
+    @Override
+    default Sense textToken(final String text) {
+      return text.isEmpty() ?
+             new Absence() :
+             new Word(text);
+    }
+
+    final class Master
+        implements Records {
+
+      @Override
+      public String toSource() {
+        return "";
+      }
+    }
+
+    final class Word
+        implements Text,
+                   Records {
+
+      private final String text;
+
+      Word(final String text) {
+        this.text = text;
+      }
+
+      @Override
+      public String toSource() {
+        return this.text;
+      }
+    }
+
+    final class Key
+        implements Token,
+                   Records {
+
+      @Override
+      public String toSource() {
+        return "key";
+      }
+
+      public Pair concat(final Word word) {
+        return new Pair(word);
+      }
+    }
+
+    final class Pair
+        implements Records {
+
+      private final Word value;
+
+      Pair(final Word value) {
+        this.value = value;
+      }
+
+      @Override
+      public String toSource() {
+        return "key" + this.value.toSource();
+      }
+    }
+
+    final class Bang
+        implements Token,
+                   Records {
+
+      @Override
+      public String toSource() {
+        return "!";
+      }
+
+      public Stop concat(final Semicolon semicolon) {
+        return new Stop();
+      }
+    }
+
+    final class Stop
+        implements Records {
+
+      @Override
+      public String toSource() {
+        return "!;";
+      }
+    }
+
+    final class Semicolon
+        implements Marker,
+                   Records {
+
+      @Override
+      public String toSource() {
+        return ";";
+      }
+    }
+
+    final class Double
+        implements Marker,
+                   Records {
+
+      @Override
+      public String toSource() {
+        return ";;";
+      }
+    }
+  }
+}
@@ -0,0 +1,540 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.text.Text;
+import su.izotov.java.objectlr.token.Absence;
+import su.izotov.java.objectlr.token.Failed;
+import su.izotov.java.objectlr.token.Token;
+import su.izotov.java.objectlr.tokens.Tokens;
+import su.izotov.java.objectlr.tokens.TokensOf;
+
+/**
+ * Created with IntelliJ IDEA.
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class RecognitionTest {
+
+  private static final String TEXT = MKSentence.TEXT;
+  private static final int THREADS = 8;
+  private static final int RUNS = 200;
+  private static int calls;
+
+  @Test
+  public void testParallelRecognitions() throws
+                                         Exception {
+    final Logger logger = Logger.getAnonymousLogger();
+    logger.setUseParentHandlers(false);
+    final List<String> traces = Collections.synchronizedList(new ArrayList<>(THREADS * RUNS));
+    logger.addHandler(new Handler() {
+      @Override
+      public void publish(final LogRecord record) {
+        traces.add(record.getMessage());
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    });
+    final String expected = this.recognize(new Logged(logger));
+    final String expectedTrace = traces.remove(0);
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Future<List<String>>> futures = new ArrayList<>(THREADS);
+    for (int thread = 0;
+         thread < THREADS;
+         thread++) {
+      futures.add(executor.submit((Callable<List<String>>) () -> {
+        start.await();
+        final List<String> results = new ArrayList<>(RUNS);
+        for (int run = 0;
+             run < RUNS;
+             run++) {
+          results.add(this.recognize(new Logged(logger)));
+        }
+        return results;
+      }));
+    }
+    start.countDown();
+    for (final Future<List<String>> future : futures) {
+      for (final String result : future.get()) {
+        assertEquals(expected,
+                     result);
+      }
+    }
+    executor.shutdown();
+    assertEquals(THREADS * RUNS,
+                 traces.size());
+    for (final String trace : traces) {
+      assertEquals(expectedTrace,
+                   trace);
+    }
+  }
+
+  @Test
+  public void testMemoizedFailures() throws
+                                     RecognitionException {
+    final StringBuilder text = new StringBuilder(100);
+    for (int i = 0;
+         i < 20;
+         i++) {
+      text.append("keyb");
+    }
+    text.append('x');
+    RecognitionTest.calls = 0;
+    final Sense plain = new Sentence<Failing.Master, Sense>(text,
+                                                            new Failing.Master()) {}.toObject(new Recognition(new Silent()));
+    final int calls = RecognitionTest.calls;
+    RecognitionTest.calls = 0;
+    final Sense memoized = new Sentence<Failing.Master, Sense>(text,
+                                                               new Failing.Master()) {}.toObject(new Recognition(new Silent()).withMemo(true));
+    assertEquals(plain.toVisual()
+                      .toSource(),
+                 memoized.toVisual()
+                         .toSource());
+    assertEquals(text.toString(),
+                 memoized.toSource());
+    assertTrue(RecognitionTest.calls < calls / 5);
+  }
+
+  @Test
+  public void testListener() {
+    final List<String> events = new ArrayList<>(20);
+    final Listener listener = new Listener() {
+      @Override
+      public void onText(final CharSequence text) {
+        events.add("text '" + text + '\'');
+      }
+
+      @Override
+      public void onToken(final Token token) {
+        events.add("token '" + token.toSource() + '\'');
+      }
+
+      @Override
+      public void onReduced(final Sense sense) {
+        events.add("reduced '" + sense.toSource() + '\'');
+      }
+    };
+    new Recognition(new Silent()).withListener(listener)
+                                 .run(() -> new MKLangImpl().concatDD(new Source(TEXT)));
+    assertEquals(Arrays.asList("text 'start text '",
+                               "token 'first'",
+                               "token 'second'",
+                               "text ' text '",
+                               "token 'third'",
+                               "text ' '",
+                               "token 'first'",
+                               "text ' ttt thi'"),
+                 events);
+    events.clear();
+    final Sense counted = new Recognition(new Silent()).withListener(listener)
+                                                       .run(() -> new Counting.Master().concatDD(new Source("aa-a")));
+    assertEquals("aa-a",
+                 counted.toSource());
+    assertEquals(Arrays.asList("token 'a'",
+                               "reduced 'a'",
+                               "token 'a'",
+                               "reduced 'aa'",
+                               "text '-'",
+                               "token 'a'"),
+                 events);
+  }
+
+  @Test
+  public void testReducedInChain() {
+    final List<String> events = new ArrayList<>(10);
+    final Listener listener = new Listener() {
+      @Override
+      public void onText(final CharSequence text) {
+        events.add("text '" + text + '\'');
+      }
+
+      @Override
+      public void onToken(final Token token) {
+        events.add("token '" + token.toSource() + '\'');
+      }
+
+      @Override
+      public void onReduced(final Sense sense) {
+        events.add("reduced '" + sense.toSource() + '\'');
+      }
+    };
+    final Sense pairs = new Recognition(new Silent()).withListener(listener)
+                                                     .run(() -> new Pairing.Master().concatDD(new Source("ab-ab")));
+    assertEquals(Arrays.asList("token 'a'",
+                               "token 'b'",
+                               "reduced 'ab'",
+                               "text '-'",
+                               "token 'a'",
+                               "token 'b'",
+                               "reduced 'ab'"),
+                 events);
+    assertEquals("ab",
+                 pairs.toSource());
+  }
+
+  @Test
+  public void testMetrics() throws
+                            RecognitionException {
+    final Counted metrics = new Counted();
+    new Sentence<MKLangImpl, Sense>(TEXT,
+                                    new MKLangImpl()) {}.toObject(new Recognition(new Silent()).withMetrics(metrics));
+    assertEquals(1,
+                 metrics.recognitions());
+    assertTrue(metrics.recognitionTime() > 0);
+    assertEquals(5,
+                 metrics.searches());
+    assertEquals(TEXT.length(),
+                 metrics.characters());
+    assertTrue(metrics.interactions(MKLangImpl.class,
+                                    MKText.class) > 0);
+    assertEquals(0,
+                 metrics.failures());
+    new Sentence<Failing.Master, Sense>("keyx",
+                                        new Failing.Master()) {}.toObject(new Recognition(new Silent()).withMetrics(metrics));
+    assertTrue(metrics.failures() > 0);
+    assertTrue(metrics.exclusions() > 0);
+    assertTrue(metrics.deepest() > 0);
+    assertTrue(metrics.reductions() > 0);
+    assertTrue(metrics.toString(),
+               metrics.toString()
+                      .contains(Failing.Key.class.getName()));
+  }
+
+  @Test
+  public void testCombinedSettings() throws
+                                     RecognitionException {
+    final Counted metrics = new Counted();
+    final List<Token> tokens = new ArrayList<>(4);
+    final Listener listener = new Listener() {
+      @Override
+      public void onText(final CharSequence text) {
+      }
+
+      @Override
+      public void onToken(final Token token) {
+        tokens.add(token);
+      }
+
+      @Override
+      public void onReduced(final Sense sense) {
+      }
+    };
+    final Recognition recognition = new Recognition(new Silent()).withGrammar(Grammar.of(MKLangImpl.class))
+                                                                 .withListener(listener)
+                                                                 .withMetrics(metrics)
+                                                                 .withMemo(true);
+    new MKSentence(TEXT).toObject(recognition);
+    assertEquals(4,
+                 tokens.size());
+    assertEquals(1,
+                 metrics.recognitions());
+    assertEquals(0,
+                 metrics.discoveries());
+  }
+
+  @Test
+  public void testRecorded() {
+    assertEquals(this.recognize(new Silent()),
+                 new Recognition(new Silent()).withMetrics(new Recorded())
+                                              .run(() -> new MKLangImpl().concatDD(new Source(TEXT)))
+                                              .toVisual()
+                                              .toSource());
+  }
+
+  private String recognize(final Trace trace) {
+    return new Recognition(trace).run(() -> new MKLangImpl().concatDD(new Source(TEXT)))
+                                 .toVisual()
+                                 .toSource();
+  }
+
+  /**
+   * the language, where the adjacent tokens are counted
+   */
+  public interface Counting
+      extends Sense {
+
+    Tokens TOKENS = new TokensOf(new A());
+
+    @Override
+    default Tokens tokens() {
+      return TOKENS;
+    }
+
+    @Override
+    default Sense textToken(final String text) {
+      return text.isEmpty() ?
+             new Absence() :
+             new Word(text);
+    }
+
+    final class Master
+        implements Counting {
+
+      public Count concat(final A token) {
+        return new Count(1);
+      }
+
+      @Override
+      public String toSource() {
+        return "";
+      }
+    }
+
+    final class Word
+        implements Text,
+                   Counting {
+
+      private final String text;
+
+      Word(final String text) {
+        this.text = text;
+      }
+
+      @Override
+      public String toSource() {
+        return this.text;
+      }
+    }
+
+    final class A
+        implements Token,
+                   Counting {
+
+      @Override
+      public String toSource() {
+        return "a";
+      }
+    }
+
+    final class Count
+        implements Counting {
+
+      private final int count;
+
+      Count(final int count) {
+        this.count = count;
+      }
+
+      public Count concat(final A token) {
+        return new Count(this.count + 1);
+      }
+
+      @Override
+      public String toSource() {
+        final StringBuilder source = new StringBuilder(this.count);
+        for (int i = 0;
+             i < this.count;
+             i++) {
+          source.append('a');
+        }
+        return source.toString();
+      }
+    }
+  }
+
+  /**
+   * the language, where the pairs of the tokens are reduced inside the chain, and the preceding
+   * senses are released after every pair
+   */
+  public interface Pairing
+      extends Sense {
+
+    Tokens TOKENS = new TokensOf(new A(),
+                                 new B());
+
+    @Override
+    default Tokens tokens() {
+      return TOKENS;
+    }
+
+    @Override
+    default Sense textToken(final String text) {
+      return text.isEmpty() ?
+             new Absence() :
+             new Word(text);
+    }
+
+    final class Master
+        implements Pairing {
+
+      @Override
+      public String toSource() {
+        return "";
+      }
+    }
+
+    final class Word
+        implements Text,
+                   Pairing {
+
+      private final String text;
+
+      Word(final String text) {
+        this.text = text;
+      }
+
+      @Override
+      public String toSource() {
+        return this.text;
+      }
+    }
+
+    final class A
+        implements Token,
+                   Pairing {
+
+      public Pair concat(final B token) {
+        return new Pair();
+      }
+
+      @Override
+      public String toSource() {
+        return "a";
+      }
+    }
+
+    final class B
+        implements Token,
+                   Pairing {
+
+      @Override
+      public String toSource() {
+        return "b";
+      }
+    }
+
+    final class Pair
+        implements Pairing,
+                   Finished {
+
+      @Override
+      public String toSource() {
+        return "ab";
+      }
+    }
+  }
+
+  /**
+   * the language, where the tokens fail before any text
+   */
+  public interface Failing
+      extends Sense {
+
+    Tokens TOKENS = new TokensOf(new Key(),
+                                 new B());
+
+    @Override
+    default Tokens tokens() {
+      return TOKENS;
+    }
+
+    @Override
+    default Sense textToken(final String text) {
+      return text.isEmpty() ?
+             new Absence() :
+             new Word(text);
+    }
+
+    final class Master
+        implements Failing {
+
+      @Override
+      public String toSource() {
+        return "";
+      }
+    }
+
+    final class Word
+        implements Text,
+                   Failing {
+
+      private final String text;
+
+      Word(final String text) {
+        this.text = text;
+      }
+
+      @Override
+      public String toSource() {
+        return this.text;
+      }
+    }
+
+    final class Key
+        implements Token,
+                   Failing {
+
+      @Override
+      public String toSource() {
+        return "key";
+      }
+
+      public Sense concat(final Word word) {
+        RecognitionTest.calls++;
+        return new Failed(this,
+                          new Source(word.toSource()));
+      }
+    }
+
+    final class B
+        implements Token,
+                   Failing {
+
+      @Override
+      public String toSource() {
+        return "b";
+      }
+
+      public Sense concat(final Word word) {
+        RecognitionTest.calls++;
+        return new Failed(this,
+                          new Source(word.toSource()));
+      }
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import su.izotov.java.objectlr.text.Source;
+
+/**
+ * Created with IntelliJ IDEA.
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class RecognizerTest {
+
+  @Test
+  public void testManyTokensOnSmallStack() throws
+                                           Exception {
+    final StringBuilder text = new StringBuilder(600000);
+    for (int token = 0;
+         token < 100000;
+         token++) {
+      text.append("first ");
+    }
+    final AtomicReference<Object> result = new AtomicReference<>();
+    final Thread thread = new Thread(null,
+                                     () -> {
+                                       try {
+                                         result.set(new MKLangImpl().concat(new Source(text)));
+                                       } catch (final Throwable e) {
+                                         result.set(e);
+                                       }
+                                     },
+                                     "small stack",
+                                     256 * 1024);
+    thread.start();
+    thread.join();
+    assertTrue(String.valueOf(result.get()),
+               result.get() instanceof Chain);
+  }
+}
@@ -47,4 +47,8 @@ public final class SenseTest {
     Tokens result = instance.tokens();
     assertTrue(EqualsBuilder.reflectionEquals(expResult, result, false, null, true));
   }
-}
\ No newline at end of file
+
+  @Test public void testTokensDiscoveredOnce() {
+    assertTrue(new MKAutoTokens().tokens() == new MKAutoTokens().tokens());
+  }
+}
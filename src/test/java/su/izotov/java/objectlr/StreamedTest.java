@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.io.IOException;
+import java.io.StringReader;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.token.EOF;
+
+/**
+ * Created with IntelliJ IDEA.
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class StreamedTest {
+
+  private static final String TEXT = MKSentence.TEXT;
+
+  @Test
+  public void testSameAsWholeText() throws
+                                    RecognitionException,
+                                    IOException {
+    final String expected = new MKLangImpl().concat(new Source(TEXT))
+                                            .concatDD(new EOF())
+                                            .toVisual()
+                                            .toSource();
+    for (int chunk = 1;
+         chunk < TEXT.length() + 2;
+         chunk++) {
+      assertEquals("chunk " + chunk,
+                   expected,
+                   new MKStreamed(TEXT,
+                                  chunk).toObject()
+                                        .toVisual()
+                                        .toSource());
+    }
+  }
+
+  @Test
+  public void testEmptyText() throws
+                              RecognitionException,
+                              IOException {
+    assertEquals(new MKLangImpl().concat(new Source(""))
+                                 .concatDD(new EOF())
+                                 .toVisual()
+                                 .toSource(),
+                 new MKStreamed("",
+                                4).toObject()
+                                  .toVisual()
+                                  .toSource());
+  }
+
+  private static final class MKStreamed
+      extends Streamed<MKLangImpl, Sense> {
+
+    MKStreamed(final String text,
+               final int chunk) {
+      super(new StringReader(text),
+            new MKLangImpl(),
+            chunk);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.print;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class LayoutTest {
+
+  @Test
+  public void testSameAsNested() {
+    final Random random = new Random(7);
+    for (int tree = 0;
+         tree < 2000;
+         tree++) {
+      final Cell cell = cell(random,
+                             5);
+      assertEquals(nested(cell),
+                   cell.toSource());
+    }
+  }
+
+  @Test
+  public void testDeepTreeOnSmallStack() throws
+                                         InterruptedException {
+    final AtomicReference<Object> result = new AtomicReference<>();
+    final Thread thread = new Thread(null,
+                                     () -> {
+                                       try {
+                                         Cell cell = new CellOf("");
+                                         for (int line = 0;
+                                              line < 100000;
+                                              line++) {
+                                           cell = cell.addBottom(new Spaces(1).addRight("x"));
+                                         }
+                                         result.set(cell.addRight("y")
+                                                        .toSource()
+                                                        .length());
+                                       } catch (final Throwable e) {
+                                         result.set(e);
+                                       }
+                                     },
+                                     "small stack",
+                                     256 * 1024);
+    thread.start();
+    thread.join();
+    assertEquals(5 + 100000 * 4,
+                 result.get());
+  }
+
+  private static Cell cell(final Random random,
+                           final int depth) {
+    final Cell ret;
+    final int kind = depth == 0 ?
+                     0 :
+                     random.nextInt(4);
+    if (kind == 0) {
+      final String[] texts = {"", "a", "bc\ndef", "\n", "ghij\n", "k\n\nlm"};
+      ret = new CellOf(texts[random.nextInt(texts.length)]);
+    }
+    else if (kind == 1) {
+      ret = new Spaces(random.nextInt(3));
+    }
+    else if (kind == 2) {
+      ret = new Horizontal(cell(random,
+                                depth - 1),
+                           cell(random,
+                                depth - 1));
+    }
+    else {
+      ret = new Vertical(cell(random,
+                              depth - 1),
+                         cell(random,
+                              depth - 1));
+    }
+    return ret;
+  }
+
+  /**
+   * the layout by nested calls, each cell rendering its parts into strings
+   */
+  private static String nested(final Cell cell) {
+    final String ret;
+    if (cell instanceof Vertical) {
+      ret = nested(((Vertical) cell).top()) + '\n' + nested(((Vertical) cell).bottom());
+    }
+    else if (cell instanceof Horizontal) {
+      final String left = nested(((Horizontal) cell).left());
+      final String right = nested(((Horizontal) cell).right());
+      if (left.isEmpty()) {
+        ret = right;
+      }
+      else if (right.isEmpty()) {
+        ret = left;
+      }
+      else {
+        final String[] lefts = left.split("\n",
+                                          -1);
+        final String[] rights = right.split("\n",
+                                            -1);
+        int width = 0;
+        for (final String line : lefts) {
+          width = Integer.max(width,
+                              line.length());
+        }
+        final StringBuilder builder = new StringBuilder();
+        for (int line = 0;
+             line < Integer.max(lefts.length,
+                                rights.length);
+             line++) {
+          if (line != 0) {
+            builder.append('\n');
+          }
+          if (line < rights.length) {
+            final String prefix = line < lefts.length ?
+                                  lefts[line] :
+                                  "";
+            builder.append(prefix);
+            for (int space = prefix.length();
+                 space <= width;
+                 space++) {
+              builder.append(' ');
+            }
+            builder.append(rights[line]);
+          }
+          else {
+            builder.append(lefts[line]);
+          }
+        }
+        ret = builder.toString();
+      }
+    }
+    else {
+      ret = cell.toSource();
+    }
+    return ret;
+  }
+}
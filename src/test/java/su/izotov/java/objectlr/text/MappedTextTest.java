@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.text;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class MappedTextTest {
+
+  private static final String TEXT = "start текст first😀second ⊕ third";
+
+  @Test
+  public void testSegmentsDecoded() throws
+                                    IOException {
+    final Path file = Files.createTempFile("mapped",
+                                           ".txt");
+    try {
+      Files.write(file,
+                  TEXT.getBytes(StandardCharsets.UTF_8));
+      for (int segment = 1;
+           segment < 12;
+           segment++) {
+        final MappedText text = new MappedText(file,
+                                               segment);
+        assertEquals("segment " + segment,
+                     TEXT,
+                     text.toString());
+        for (int index = TEXT.length() - 1;
+             index >= 0;
+             index--) {
+          assertEquals(TEXT.charAt(index),
+                       text.charAt(index));
+        }
+        assertEquals(TEXT.substring(6,
+                                    22),
+                     text.subSequence(6,
+                                      22)
+                         .toString());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testPositionInMappedSource() throws
+                                           IOException {
+    final Path file = Files.createTempFile("mapped",
+                                           ".txt");
+    try {
+      Files.write(file,
+                  TEXT.getBytes(StandardCharsets.UTF_8));
+      final Source source = new Source(new MappedText(file,
+                                                      4));
+      assertEquals(TEXT.indexOf("second"),
+                   source.positionOf("second"));
+      assertEquals(TEXT.length(),
+                   source.length());
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -64,8 +64,9 @@ public final class SourceTest {
   public void testFollowingText() {
     Source source = new Source("before second after");
     String text = "second";
-    Sense expResult = new Source(" after");
-    Sense result = source.followingThe(text);
+    String expResult = " after";
+    String result = source.followingThe(text)
+                          .toSource();
     assertTrue(EqualsBuilder.reflectionEquals(expResult,
                                               result,
                                               false,
@@ -118,12 +119,50 @@ public final class SourceTest {
   public void testFollowingThe() throws
                                  Exception {
     Source instance = new Source("preceding text second following text");
-    Source expResult = new Source(" following text");
-    Sense result = instance.followingThe("second");
+    String expResult = " following text";
+    String result = instance.followingThe("second")
+                            .toSource();
     assertTrue(EqualsBuilder.reflectionEquals(expResult,
                                               result,
                                               false,
                                               null,
                                               true));
   }
+
+  @Test
+  public void testPrecedingInWindow() {
+    Source instance = new Source("first second first third",
+                                 6,
+                                 19);
+    String expResult = "second ";
+    String result = instance.precedingThe("first");
+    assertTrue(EqualsBuilder.reflectionEquals(expResult,
+                                              result,
+                                              false,
+                                              null,
+                                              true));
+  }
+
+  @Test
+  public void testFollowingInWindow() {
+    Source instance = new Source("first second first third",
+                                 6,
+                                 19);
+    String expResult = " ";
+    String result = instance.followingThe("first")
+                            .toSource();
+    assertTrue(EqualsBuilder.reflectionEquals(expResult,
+                                              result,
+                                              false,
+                                              null,
+                                              true));
+  }
+
+  @Test
+  public void testOutOfWindow() {
+    Source instance = new Source("first second first third",
+                                 6,
+                                 19);
+    assertTrue(instance.positionOf("third") == -1);
+  }
 }
@@ -0,0 +1,167 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.tokens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+import su.izotov.java.objectlr.token.Absence;
+import su.izotov.java.objectlr.token.Token;
+
+/**
+ * Created with IntelliJ IDEA.
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class AutomatonTest {
+
+  @Test
+  public void testLongestAtTheSamePosition() {
+    final Automaton instance = new Automaton(Arrays.asList(new Literal("ab"),
+                                                           new Literal("abcd"),
+                                                           new Literal("bc")));
+    assertEquals("abcd",
+                 instance.leftMostIn("xxabcde")
+                         .toSource());
+  }
+
+  @Test
+  public void testLeftMostBeforeLongest() {
+    final Automaton instance = new Automaton(Arrays.asList(new Literal("bcdef"),
+                                                           new Literal("ab")));
+    assertEquals("ab",
+                 instance.leftMostIn("abcdef")
+                         .toSource());
+  }
+
+  @Test
+  public void testAbsence() {
+    final Automaton instance = new Automaton(Arrays.asList(new Literal("ab"),
+                                                           new Literal("cd")));
+    assertEquals(Absence.class,
+                 instance.leftMostIn("acbdca")
+                         .getClass());
+  }
+
+  @Test
+  public void testSameAsFolding() {
+    final Random random = new Random(42);
+    for (int attempt = 0;
+         attempt < 500;
+         attempt++) {
+      final List<Token> literals = new ArrayList<>(10);
+      for (int index = 0;
+           index < 1 + random.nextInt(10);
+           index++) {
+        literals.add(new Literal(this.word(random,
+                                           1 + random.nextInt(4))));
+      }
+      final String text = this.word(random,
+                                    random.nextInt(30));
+      Token expected = new Absence();
+      for (final Token literal : literals) {
+        expected = expected.leftMost(literal.leftMostIn(text),
+                                     text);
+      }
+      final Token result = new Automaton(literals).leftMostIn(text);
+      assertEquals(text,
+                   expected.toSource(),
+                   result.toSource());
+      assertEquals(text,
+                   expected.firstPositionIn(text),
+                   result.firstPositionIn(text));
+    }
+  }
+
+  private String word(final Random random,
+                      final int length) {
+    final StringBuilder ret = new StringBuilder(length);
+    for (int index = 0;
+         index < length;
+         index++) {
+      ret.append((char) ('a' + random.nextInt(3)));
+    }
+    return ret.toString();
+  }
+
+  @Test
+  public void testExcludedLongest() {
+    final Automaton instance = new Automaton(Arrays.asList(new Literal("cd"),
+                                                           new Literal("bcd"),
+                                                           new Literal("abcd")));
+    final BitSet excluded = new BitSet();
+    excluded.set(2);
+    assertEquals("bcd",
+                 instance.leftMostIn("xabcd",
+                                     excluded)
+                         .toSource());
+    excluded.set(1);
+    assertEquals("cd",
+                 instance.leftMostIn("xabcd",
+                                     excluded)
+                         .toSource());
+  }
+
+  @Test
+  public void testExcludedSameLiteral() {
+    final Token first = new Literal("ab");
+    final Token last = new Literal("ab");
+    final Automaton instance = new Automaton(Arrays.asList(first,
+                                                           last));
+    final BitSet excluded = new BitSet();
+    assertSame(last,
+               instance.leftMostIn("xaby",
+                                   excluded));
+    excluded.set(1);
+    assertSame(first,
+               instance.leftMostIn("xaby",
+                                   excluded));
+    excluded.set(0);
+    assertEquals(Absence.class,
+                 instance.leftMostIn("xaby",
+                                     excluded)
+                         .getClass());
+  }
+
+  private static final class Literal
+      implements Token {
+
+    private final String text;
+
+    Literal(final String text) {
+      this.text = text;
+    }
+
+    @Override
+    public String toSource() {
+      return this.text;
+    }
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.tokens;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import su.izotov.java.objectlr.token.Absence;
+import su.izotov.java.objectlr.token.Token;
+
+/**
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class LexerTest {
+
+  @Test
+  public void testSameAsLeftMost() {
+    final Random random = new Random(17);
+    for (int attempt = 0;
+         attempt < 300;
+         attempt++) {
+      final List<Tokens> literals = new ArrayList<>(6);
+      for (int index = 0;
+           index < 6;
+           index++) {
+        literals.add(new Literal(LexerTest.random(random,
+                                                  1 + random.nextInt(3))));
+      }
+      if (attempt % 2 == 0) {
+        literals.add(new Digits());
+      }
+      final Tokens tokens = new TokensOf(literals);
+      final String text = LexerTest.random(random,
+                                           200);
+      final Lexer lexer = new Lexer(tokens);
+      final int[] triples = lexer.lex(text);
+      int from = 0;
+      int index = 0;
+      Token token = tokens.leftMostIn(text);
+      while (!(token instanceof Absence)) {
+        final String rest = text.substring(from);
+        final int start = from + token.firstPositionIn(rest);
+        assertEquals(start,
+                     triples[index + 1]);
+        assertEquals(start + token.length(),
+                     triples[index + 2]);
+        assertEquals(token.toSource(),
+                     text.substring(triples[index + 1],
+                                    triples[index + 2]));
+        from = start + token.length();
+        index += 3;
+        token = tokens.leftMostIn(text.substring(from));
+      }
+      assertEquals(index,
+                   triples.length);
+    }
+  }
+
+  @Test
+  public void testBufferContinued() {
+    final Tokens tokens = new TokensOf(new Literal("ab"),
+                                       new Literal("b"),
+                                       new Literal("abc"),
+                                       new Digits());
+    final String text = "xxabcab12bb3abab";
+    final Lexer lexer = new Lexer(tokens);
+    final IntBuffer buffer = IntBuffer.allocate(6);
+    final List<Integer> triples = new ArrayList<>(24);
+    int from = 0;
+    while (from != -1) {
+      buffer.clear();
+      from = lexer.lex(text,
+                       from,
+                       buffer);
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        triples.add(buffer.get());
+      }
+    }
+    assertArrayEquals(lexer.lex(text),
+                      triples.stream()
+                             .mapToInt(Integer::intValue)
+                             .toArray());
+    assertEquals(Arrays.asList("abc",
+                               "ab",
+                               "12",
+                               "b",
+                               "b",
+                               "3",
+                               "ab",
+                               "ab"),
+                 LexerTest.sources(lexer,
+                                   text));
+  }
+
+  @Test
+  public void testExcludedIds() {
+    final Tokens tokens = new TokensOf(new Literal("ab"),
+                                       new Literal("b"));
+    final Lexer lexer = new Lexer(tokens.exclude(new Literal("ab")));
+    final int[] triples = lexer.lex("abab");
+    assertEquals(6,
+                 triples.length);
+    assertEquals("b",
+                 ((Token) lexer.member(triples[0])).toSource());
+  }
+
+  @Test
+  public void testLargeWithCustomMember() {
+    final Tokens tokens = new TokensOf(new Literal("ab"),
+                                       new Literal("c"),
+                                       new Digits());
+    final StringBuilder text = new StringBuilder(600000);
+    while (text.length() < 600000) {
+      for (int index = 0;
+           index < 100;
+           index++) {
+        text.append("abc");
+      }
+      text.append("x42 ");
+    }
+    final int[] triples = new Lexer(tokens).lex(text);
+    int digits = 0;
+    for (int index = 0;
+         index < triples.length;
+         index += 3) {
+      if (text.charAt(triples[index + 1]) == '4') {
+        assertEquals("42",
+                     text.substring(triples[index + 1],
+                                    triples[index + 2]));
+        digits++;
+      }
+    }
+    assertEquals(600000 / 304 + 1,
+                 digits);
+    assertEquals(digits * 201 * 3,
+                 triples.length);
+  }
+
+  /**
+   * the member is searched in the windows of the text, so the scan is linear
+   */
+  @Test(timeout = 10000)
+  public void testDenseWithCustomMember() {
+    final Tokens tokens = new TokensOf(new Literal("ab"),
+                                       new Literal("c"),
+                                       new Digits());
+    final StringBuilder text = new StringBuilder(1200000);
+    while (text.length() < 1200000) {
+      text.append("c7");
+    }
+    final int[] triples = new Lexer(tokens).lex(text);
+    assertEquals(text.length() * 3,
+                 triples.length);
+    for (int index = 0;
+         index < triples.length;
+         index += 3) {
+      assertEquals(index / 3 + 1,
+                   triples[index + 2]);
+    }
+  }
+
+  private static List<String> sources(final Lexer lexer,
+                                      final String text) {
+    final int[] triples = lexer.lex(text);
+    final List<String> ret = new ArrayList<>(triples.length / 3);
+    for (int index = 0;
+         index < triples.length;
+         index += 3) {
+      ret.add(text.substring(triples[index + 1],
+                             triples[index + 2]));
+    }
+    return ret;
+  }
+
+  private static String random(final Random random,
+                               final int length) {
+    final StringBuilder ret = new StringBuilder(length);
+    for (int index = 0;
+         index < length;
+         index++) {
+      ret.append("ab1c2"
+                   .charAt(random.nextInt(5)));
+    }
+    return ret.toString();
+  }
+
+  private static final class Literal
+      implements Token {
+
+    private final String text;
+
+    Literal(final String text) {
+      this.text = text;
+    }
+
+    @Override
+    public String toSource() {
+      return this.text;
+    }
+  }
+
+  /**
+   * the token with custom search logic: the first sequence of digits
+   */
+  private static final class Digits
+      implements Tokens {
+
+    @Override
+    public Token leftMostIn(final String text) {
+      return this.leftMostIn((CharSequence) text);
+    }
+
+    @Override
+    public Token leftMostIn(final CharSequence text) {
+      int start = 0;
+      while (start < text.length() && !Character.isDigit(text.charAt(start))) {
+        start++;
+      }
+      int end = start;
+      while (end < text.length() && Character.isDigit(text.charAt(end))) {
+        end++;
+      }
+      return start == end ?
+             new Absence() :
+             new Literal(text.subSequence(start,
+                                          end)
+                             .toString());
+    }
+
+    @Override
+    public Tokens exclude(final Tokens tokens) {
+      return this;
+    }
+
+    @Override
+    public boolean contains(final Token token) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr.tokens;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import su.izotov.java.objectlr.Recognition;
+import su.izotov.java.objectlr.RecognitionTest;
+import su.izotov.java.objectlr.Sense;
+import su.izotov.java.objectlr.Trace;
+import su.izotov.java.objectlr.text.Source;
+import su.izotov.java.objectlr.token.Token;
+
+/**
+ * Created with IntelliJ IDEA.
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class OccurrencesTest {
+
+  @Test
+  public void testSameAsAutomaton() {
+    final Random random = new Random(23);
+    for (int attempt = 0;
+         attempt < 100;
+         attempt++) {
+      final List<Token> literals = new ArrayList<>(8);
+      for (int index = 0;
+           index < 8;
+           index++) {
+        literals.add(new Literal(index == 7 ?
+                                 literals.get(0)
+                                         .toSource() :
+                                 OccurrencesTest.random(random,
+                                                        1 + random.nextInt(4))));
+      }
+      final Automaton automaton = new Automaton(literals);
+      final String text = OccurrencesTest.random(random,
+                                                 3000);
+      final Occurrences occurrences = new Occurrences(text);
+      for (int query = 0;
+           query < 200;
+           query++) {
+        final int from = random.nextInt(text.length() + 1);
+        final int end = from + random.nextInt(text.length() - from + 1);
+        final BitSet excluded = new BitSet(8);
+        for (int id = 0;
+             id < 8;
+             id++) {
+          if (random.nextInt(4) == 0) {
+            excluded.set(id);
+          }
+        }
+        assertEquals(from + ".." + end,
+                     automaton.leftMost(text.substring(0,
+                                                       end),
+                                        from,
+                                        excluded),
+                     occurrences.leftMost(automaton,
+                                          from,
+                                          end,
+                                          excluded));
+      }
+    }
+  }
+
+  @Test
+  public void testStepwiseSearch() {
+    final List<Token> literals = new ArrayList<>(2);
+    literals.add(new Literal("ab"));
+    literals.add(new Literal("b"));
+    final Automaton automaton = new Automaton(literals);
+    final StringBuilder text = new StringBuilder(30000);
+    for (int index = 0;
+         index < 10000;
+         index++) {
+      text.append("xab");
+    }
+    final Occurrences occurrences = new Occurrences(text.toString());
+    final BitSet none = new BitSet(0);
+    final BitSet pair = new BitSet(1);
+    pair.set(0);
+    for (int from = 0;
+         from < text.length();
+         from += 3) {
+      assertEquals((long) (from + 1) << 32,
+                   occurrences.leftMost(automaton,
+                                        from,
+                                        text.length(),
+                                        none));
+      assertEquals((long) (from + 2) << 32 | 1,
+                   occurrences.leftMost(automaton,
+                                        from,
+                                        text.length(),
+                                        pair));
+    }
+  }
+
+  @Test
+  public void testSharedAfterFailures() {
+    final StringBuilder text = new StringBuilder(410);
+    for (int index = 0;
+         index < 100;
+         index++) {
+      text.append("keyb");
+    }
+    text.append('x');
+    final Source source = new Source(text.toString());
+    final Set<Occurrences> indexes = Collections.newSetFromMap(new IdentityHashMap<>(4));
+    final int[] searches = new int[1];
+    final Sense result = new Recognition(new Trace() {
+      @Override
+      public void interaction(final Sense master,
+                              final Sense guest,
+                              final Object function) {
+        if (guest instanceof Source && ((Source) guest).length() > 0) {
+          if (searches[0] > 0) {
+            indexes.add(((Source) guest).occurrences());
+          }
+          searches[0]++;
+        }
+      }
+
+      @Override
+      public void result(final Sense result) {
+      }
+    }).run(() -> new RecognitionTest.Failing.Master().concatDD(source));
+    assertEquals(text.toString(),
+                 result.toSource());
+    assertTrue(searches[0] > 100);
+    assertEquals(1,
+                 indexes.size());
+    assertTrue(String.valueOf(indexes.iterator()
+                                     .next()
+                                     .scanned()),
+               indexes.iterator()
+                      .next()
+                      .scanned() <= text.length());
+    assertNotSame(source.occurrences(),
+                  source.occurrences());
+  }
+
+  private static String random(final Random random,
+                               final int length) {
+    final StringBuilder ret = new StringBuilder(length);
+    for (int index = 0;
+         index < length;
+         index++) {
+      ret.append("abc"
+                   .charAt(random.nextInt(3)));
+    }
+    return ret.toString();
+  }
+
+  private static final class Literal
+      implements Token {
+
+    private final String text;
+
+    Literal(final String text) {
+      this.text = text;
+    }
+
+    @Override
+    public String toSource() {
+      return this.text;
+    }
+  }
+}
@@ -23,12 +23,13 @@
  */
 package su.izotov.java.objectlr.tokens;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 import su.izotov.java.objectlr.MKFirstToken;
 import su.izotov.java.objectlr.MKSecondToken;
 import su.izotov.java.objectlr.MKThirdToken;
+import su.izotov.java.objectlr.token.Token;
 
 /**
  * Created with IntelliJ IDEA.
@@ -46,11 +47,8 @@ public final class TokensOfTest {
     Tokens expResult = new TokensOf(new TokensOf(new MKSecondToken(),
                                                  new MKThirdToken()));
     Tokens result = instance.exclude(new MKFirstToken());
-    assertTrue(EqualsBuilder.reflectionEquals(expResult,
-                                              result,
-                                              false,
-                                              null,
-                                              true));
+    assertSameTokens(expResult,
+                     result);
   }
 
   @Test
@@ -61,11 +59,8 @@ public final class TokensOfTest {
     Tokens expResult = new TokensOf(new MKFirstToken(),
                                     new TokensOf(new MKThirdToken()));
     Tokens result = instance.exclude(new MKSecondToken());
-    assertTrue(EqualsBuilder.reflectionEquals(expResult,
-                                              result,
-                                              false,
-                                              null,
-                                              true));
+    assertSameTokens(expResult,
+                     result);
   }
 
   @Test
@@ -90,4 +85,34 @@ public final class TokensOfTest {
                                    new TokensOf(new MKSecondToken()));
     assertTrue(!instance.contains(new MKThirdToken()));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testExcludeTwice() {
+    Tokens instance = new TokensOf(new MKFirstToken(),
+                                   new TokensOf(new MKSecondToken(),
+                                                new MKThirdToken()));
+    Tokens result = instance.exclude(new MKFirstToken())
+                            .exclude(new MKThirdToken());
+    assertSameTokens(new TokensOf(new MKSecondToken()),
+                     result);
+  }
+
+  /**
+   * the sets contain the same tokens and find the same tokens in the text
+   */
+  private static void assertSameTokens(final Tokens expected,
+                                       final Tokens result) {
+    for (final Token token : new Token[]{new MKFirstToken(), new MKSecondToken(), new MKThirdToken()}) {
+      assertEquals(token.toSource(),
+                   expected.contains(token),
+                   result.contains(token));
+    }
+    for (final String text : new String[]{"first second third", "third second first", "second", ""}) {
+      assertEquals(text,
+                   expected.leftMostIn(text)
+                           .getClass(),
+                   result.leftMostIn(text)
+                         .getClass());
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ *  Copyright (c) 2018 Vladimir Izotov
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included
+ *  in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package su.izotov.java.objectlr;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Created with IntelliJ IDEA.
+ * @author Vladimir Izotov
+ * @version $Id$
+ * @since 1.0
+ */
+public final class RecordedTest {
+
+  /**
+   * the class of the layer for Java 11 is loaded from the jar
+   */
+  @Test
+  public void testEvents() throws
+                           Exception,
+                           RecognitionException {
+    final String text = "keyx";
+    final Path file = Files.createTempFile("objectlr",
+                                           ".jfr");
+    final List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable("su.izotov.objectlr.Search");
+      recording.enable("su.izotov.objectlr.Failure");
+      recording.enable("su.izotov.objectlr.Reduction");
+      recording.enable("su.izotov.objectlr.Sentence");
+      recording.start();
+      new Sentence<RecognitionTest.Failing.Master, Sense>(text,
+                                                          new RecognitionTest.Failing.Master()) {}.toObject(new Recognition(new Silent()).withMetrics(new Recorded()));
+      recording.stop();
+      recording.dump(file);
+      events = RecordingFile.readAllEvents(file);
+    } finally {
+      Files.delete(file);
+    }
+    final List<RecordedEvent> runs = RecordedTest.events(events,
+                                                         "su.izotov.objectlr.Sentence");
+    assertEquals(1,
+                 runs.size());
+    assertEquals(text.length(),
+                 runs.get(0)
+                     .getInt("characters"));
+    assertTrue(runs.get(0)
+                   .getDuration()
+                   .compareTo(Duration.ZERO) > 0);
+    final List<RecordedEvent> failures = RecordedTest.events(events,
+                                                             "su.izotov.objectlr.Failure");
+    assertFalse(failures.isEmpty());
+    for (final RecordedEvent failure : failures) {
+      assertEquals(RecognitionTest.Failing.Key.class.getName(),
+                   failure.getString("token"));
+      assertTrue(failure.getInt("offset") >= 0);
+      assertTrue(failure.getDuration()
+                        .compareTo(Duration.ZERO) > 0);
+      assertTrue(runs.get(0)
+                     .getDuration()
+                     .compareTo(failure.getDuration()) >= 0);
+    }
+    final List<RecordedEvent> searches = RecordedTest.events(events,
+                                                             "su.izotov.objectlr.Search");
+    assertFalse(searches.isEmpty());
+    assertFalse(RecordedTest.events(events,
+                                    "su.izotov.objectlr.Reduction")
+                            .isEmpty());
+  }
+
+  private static List<RecordedEvent> events(final List<RecordedEvent> events,
+                                            final String name) {
+    return events.stream()
+                 .filter(event -> event.getEventType()
+                                       .getName()
+                                       .equals(name))
+                 .collect(Collectors.toList());
+  }
+}